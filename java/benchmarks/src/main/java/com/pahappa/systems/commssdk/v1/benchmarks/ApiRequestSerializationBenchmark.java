@@ -0,0 +1,69 @@
+package com.pahappa.systems.commssdk.v1.benchmarks;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.models.ApiRequest;
+import com.pahappa.systems.commssdk.v1.models.MessageModel;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.models.UserData;
+import com.pahappa.systems.commssdk.v1.transport.SendSmsBody;
+import com.pahappa.systems.commssdk.v1.utils.NumberValidator;
+import com.pahappa.systems.commssdk.v1.utils.PhoneNumbers;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a {@code SendSms} request: the Jackson {@link ApiRequest} databind path versus the streaming
+ * {@link SendSmsBody}. Both write to a discarding stream so only serialization is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiRequestSerializationBenchmark {
+    private static final String MESSAGE = "Dear customer, your monthly statement is ready. Visit our nearest branch or dial *123# for details.";
+    private static final UserData USER_DATA = new UserData("benchmark", "benchmark-key");
+
+    @Param({"1", "500", "10000"})
+    public int size;
+
+    private PhoneNumbers numbers;
+
+    @Setup
+    public void setUp() {
+        numbers = NumberValidator.validateNumbersCompact(Numbers.generate(size));
+    }
+
+    @Benchmark
+    public void objectMapper() throws IOException {
+        List<MessageModel> messageModels = new ArrayList<>(numbers.size());
+        for (String number : numbers) {
+            MessageModel messageModel = new MessageModel();
+            messageModel.setNumber(number);
+            messageModel.setMessage(MESSAGE);
+            messageModel.setSenderId("EgoSMS");
+            messageModel.setPriority(MessagePriority.HIGHEST);
+            messageModels.add(messageModel);
+        }
+        ApiRequest apiRequest = new ApiRequest();
+        apiRequest.setMethod("SendSms");
+        apiRequest.setUserdata(USER_DATA);
+        apiRequest.setMessageData(messageModels);
+        CommsSDK.OBJECT_MAPPER.writeValue(OutputStream.nullOutputStream(), apiRequest);
+    }
+
+    @Benchmark
+    public long sendSmsBody() throws IOException {
+        SendSmsBody body = new SendSmsBody(USER_DATA, MESSAGE, "EgoSMS", MessagePriority.HIGHEST, numbers);
+        try (InputStream in = body.openStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.pahappa.systems.commssdk.v1.benchmarks;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the API's responses the way the SDK does: from the raw bytes with the cached reader. The {@code String}
+ * variant is the previous path, {@code ObjectMapper.readValue(String, Class)}, kept for comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseParsingBenchmark {
+    private static final String SEND_RESPONSE = "{\"Status\":\"OK\",\"Message\":\"Message sent successfully\",\"Cost\":35,"
+            + "\"Currency\":\"UGX\",\"MsgFollowUpUniqueCode\":\"gr1698758921x2lsd\"}";
+    private static final byte[] SEND_RESPONSE_BYTES = SEND_RESPONSE.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BALANCE_RESPONSE_BYTES = "{\"Status\":\"OK\",\"Balance\":\"152000.50\",\"Currency\":\"UGX\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Benchmark
+    public ApiResponse sendResponse() throws IOException {
+        return CommsSDK.RESPONSE_READER.readValue(SEND_RESPONSE_BYTES);
+    }
+
+    @Benchmark
+    public ApiResponse balanceResponse() throws IOException {
+        return CommsSDK.RESPONSE_READER.readValue(BALANCE_RESPONSE_BYTES);
+    }
+
+    @Benchmark
+    public ApiResponse sendResponseFromString() throws IOException {
+        return CommsSDK.OBJECT_MAPPER.readValue(new String(SEND_RESPONSE_BYTES, StandardCharsets.UTF_8), ApiResponse.class);
+    }
+}
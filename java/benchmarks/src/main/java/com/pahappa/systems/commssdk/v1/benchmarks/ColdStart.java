@@ -0,0 +1,61 @@
+package com.pahappa.systems.commssdk.v1.benchmarks;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.testing.EgoSmsEmulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+
+/**
+ * Measures what a short-lived sender pays on every cold start: one lazily authenticated send, from JVM start to
+ * response, and the peak RSS of the process. Used to compare a plain JVM, an AppCDS archive and a native image.
+ * <pre>
+ * java -cp target/benchmarks.jar com.pahappa.systems.commssdk.v1.benchmarks.ColdStart serve      # prints the URL
+ * java -cp target/benchmarks.jar com.pahappa.systems.commssdk.v1.benchmarks.ColdStart &lt;url&gt;
+ * </pre>
+ */
+public class ColdStart {
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("serve")) {
+            serve();
+            return;
+        }
+        if (args.length != 1) {
+            System.err.println("usage: ColdStart <url> | ColdStart serve");
+            System.exit(2);
+        }
+        CommsSDK.API_URL = args[0];
+        CommsSDK sdk = CommsSDK.authenticateLazily("coldstart", "coldstart");
+        ApiResponse response = sdk.querySendSMS(Collections.singletonList("256700000001"), "Cold start",
+                "ColdStart", MessagePriority.HIGHEST);
+        Instant started = ProcessHandle.current().info().startInstant().orElse(Instant.now());
+        System.out.printf("status=%s first_send_ms=%d peak_rss_kb=%s%n", response == null ? null : response.getStatus(),
+                Duration.between(started, Instant.now()).toMillis(), peakRssKb());
+    }
+
+    private static void serve() throws IOException, InterruptedException {
+        try (EgoSmsEmulator emulator = new EgoSmsEmulator().start()) {
+            System.out.println(emulator.getUrl());
+            Thread.currentThread().join();
+        }
+    }
+
+    private static String peakRssKb() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return line.substring(6).trim().split("\\s+")[0];
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // not Linux
+        }
+        return "n/a";
+    }
+}
@@ -0,0 +1,36 @@
+package com.pahappa.systems.commssdk.v1.benchmarks;
+
+import com.pahappa.systems.commssdk.v1.utils.NumberValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumberValidatorBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private List<String> numbers;
+
+    @Setup
+    public void setUp() {
+        numbers = Numbers.generate(size);
+    }
+
+    @Benchmark
+    public Object validateNumbers() {
+        return NumberValidator.validateNumbers(numbers);
+    }
+
+    @Benchmark
+    public Object validateNumbersCompact() {
+        return NumberValidator.validateNumbersCompact(numbers);
+    }
+}
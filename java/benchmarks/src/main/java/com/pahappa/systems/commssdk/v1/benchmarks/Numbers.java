@@ -0,0 +1,36 @@
+package com.pahappa.systems.commssdk.v1.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic recipient lists: valid numbers in the formats customers actually send, with some duplicates.
+ */
+final class Numbers {
+    private Numbers() {
+    }
+
+    static List<String> generate(int count) {
+        Random random = new Random(count);
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long subscriber = 700000000L + random.nextInt(count + count / 10 + 1);
+            switch (i % 4) {
+                case 0:
+                    numbers.add("256" + subscriber);
+                    break;
+                case 1:
+                    numbers.add("+256" + subscriber);
+                    break;
+                case 2:
+                    numbers.add("0" + subscriber);
+                    break;
+                default:
+                    String s = "256" + subscriber;
+                    numbers.add(s.substring(0, 3) + "-" + s.substring(3, 6) + " " + s.substring(6));
+            }
+        }
+        return numbers;
+    }
+}
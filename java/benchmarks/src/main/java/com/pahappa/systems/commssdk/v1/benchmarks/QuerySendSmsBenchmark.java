@@ -0,0 +1,51 @@
+package com.pahappa.systems.commssdk.v1.benchmarks;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.testing.EgoSmsEmulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link CommsSDK#querySendSMS} path (validation, serialization, HTTP round trip, parsing) against a loopback
+ * {@link EgoSmsEmulator} with no injected latency.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuerySendSmsBenchmark {
+
+    @Param({"1", "500"})
+    public int size;
+
+    private EgoSmsEmulator emulator;
+    private String previousUrl;
+    private CommsSDK sdk;
+    private List<String> numbers;
+
+    @Setup
+    public void setUp() throws Exception {
+        emulator = new EgoSmsEmulator().start();
+        previousUrl = CommsSDK.API_URL;
+        CommsSDK.API_URL = emulator.getUrl();
+        sdk = CommsSDK.authenticate("benchmark", "benchmark-key");
+        numbers = Numbers.generate(size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        CommsSDK.API_URL = previousUrl;
+        emulator.close();
+    }
+
+    @Benchmark
+    public ApiResponse querySendSMS() {
+        return sdk.querySendSMS(numbers, "Your one-time password is 482913", "EgoSMS", MessagePriority.HIGHEST);
+    }
+}
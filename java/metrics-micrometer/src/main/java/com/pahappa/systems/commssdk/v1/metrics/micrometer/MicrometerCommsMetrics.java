@@ -0,0 +1,127 @@
+package com.pahappa.systems.commssdk.v1.metrics.micrometer;
+
+import com.pahappa.systems.commssdk.v1.metrics.CommsMetrics;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.transport.CommsTransportException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link CommsMetrics} backed by a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Every meter is registered up front, so recording is a lookup in an array followed by a Micrometer update,
+ * without allocation or tag resolution on the request path. Meters:
+ * </p>
+ * <ul>
+ *     <li>{@code comms.sdk.request.phase} timer, tagged {@code phase} (validate, serialize, network, parse)</li>
+ *     <li>{@code comms.sdk.messages.sent} counter: recipients of requests answered with {@code OK}</li>
+ *     <li>{@code comms.sdk.numbers.rejected} counter: invalid numbers dropped before sending</li>
+ *     <li>{@code comms.sdk.responses} counter, tagged {@code status} (OK, Failed)</li>
+ *     <li>{@code comms.sdk.transport.errors} counter, tagged {@code type} (no_response, 4xx, 5xx, other)</li>
+ *     <li>{@code comms.sdk.requests.in.flight} gauge</li>
+ *     <li>{@code comms.sdk.cost} counter: cumulative {@code Cost}</li>
+ * </ul>
+ */
+public class MicrometerCommsMetrics implements CommsMetrics {
+    private final Timer[] phases = new Timer[Phase.values().length];
+    private final Counter messagesSent;
+    private final Counter numbersRejected;
+    private final Counter ok;
+    private final Counter failed;
+    private final Counter noResponse;
+    private final Counter clientErrors;
+    private final Counter serverErrors;
+    private final Counter otherErrors;
+    private final Counter cost;
+    private final AtomicLong inFlight = new AtomicLong();
+
+    /**
+     * @param registry Registry to register the meters with.
+     */
+    public MicrometerCommsMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * @param registry Registry to register the meters with.
+     * @param tags     Tags added to every meter, e.g. the tenant.
+     */
+    public MicrometerCommsMetrics(MeterRegistry registry, Iterable<Tag> tags) {
+        for (Phase phase : Phase.values()) {
+            phases[phase.ordinal()] = Timer.builder("comms.sdk.request.phase")
+                    .description("Time spent in each phase of an EgoSMS API request")
+                    .tags(tags).tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        messagesSent = Counter.builder("comms.sdk.messages.sent").tags(tags).register(registry);
+        numbersRejected = Counter.builder("comms.sdk.numbers.rejected").tags(tags).register(registry);
+        ok = Counter.builder("comms.sdk.responses").tags(tags).tag("status", ApiResponseCode.OK.name()).register(registry);
+        failed = Counter.builder("comms.sdk.responses").tags(tags).tag("status", ApiResponseCode.Failed.name()).register(registry);
+        noResponse = transportErrors(registry, tags, "no_response");
+        clientErrors = transportErrors(registry, tags, "4xx");
+        serverErrors = transportErrors(registry, tags, "5xx");
+        otherErrors = transportErrors(registry, tags, "other");
+        cost = Counter.builder("comms.sdk.cost").tags(tags).register(registry);
+        Gauge.builder("comms.sdk.requests.in.flight", inFlight, AtomicLong::get).tags(tags).register(registry);
+    }
+
+    private static Counter transportErrors(MeterRegistry registry, Iterable<Tag> tags, String type) {
+        return Counter.builder("comms.sdk.transport.errors").tags(tags).tag("type", type).register(registry);
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void numbersRejected(long count) {
+        if (count > 0) {
+            numbersRejected.increment(count);
+        }
+    }
+
+    @Override
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void transportError(int statusCode) {
+        if (statusCode == CommsTransportException.NO_RESPONSE) {
+            noResponse.increment();
+        } else if (statusCode >= 500) {
+            serverErrors.increment();
+        } else if (statusCode >= 400) {
+            clientErrors.increment();
+        } else {
+            otherErrors.increment();
+        }
+    }
+
+    @Override
+    public void response(ApiResponseCode status, int messages, long cost) {
+        if (status == ApiResponseCode.OK) {
+            ok.increment();
+            messagesSent.increment(messages);
+        } else {
+            failed.increment();
+        }
+        if (cost != 0) {
+            this.cost.increment(cost);
+        }
+    }
+}
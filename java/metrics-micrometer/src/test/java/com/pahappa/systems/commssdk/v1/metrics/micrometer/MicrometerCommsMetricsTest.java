@@ -0,0 +1,35 @@
+package com.pahappa.systems.commssdk.v1.metrics.micrometer;
+
+import com.pahappa.systems.commssdk.v1.metrics.CommsMetrics;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MicrometerCommsMetricsTest {
+
+    @Test
+    public void recordsIntoRegisteredMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerCommsMetrics metrics = new MicrometerCommsMetrics(registry);
+
+        metrics.recordPhase(CommsMetrics.Phase.NETWORK, TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.requestStarted();
+        metrics.response(ApiResponseCode.OK, 3, 105);
+        metrics.response(ApiResponseCode.Failed, 1, 0);
+        metrics.transportError(503);
+        metrics.numbersRejected(2);
+
+        assertEquals(1, registry.get("comms.sdk.request.phase").tag("phase", "network").timer().count());
+        assertEquals(20, registry.get("comms.sdk.request.phase").tag("phase", "network").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(3, registry.get("comms.sdk.messages.sent").counter().count(), 0);
+        assertEquals(1, registry.get("comms.sdk.responses").tag("status", "Failed").counter().count(), 0);
+        assertEquals(1, registry.get("comms.sdk.transport.errors").tag("type", "5xx").counter().count(), 0);
+        assertEquals(2, registry.get("comms.sdk.numbers.rejected").counter().count(), 0);
+        assertEquals(105, registry.get("comms.sdk.cost").counter().count(), 0);
+        assertEquals(1, registry.get("comms.sdk.requests.in.flight").gauge().value(), 0);
+    }
+}
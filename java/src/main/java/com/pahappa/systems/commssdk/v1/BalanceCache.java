@@ -0,0 +1,145 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Balance response cached for a time to live, refreshed in the background once it is stale.
+ * <p>
+ * A fresh value is returned as is. A stale value (older than the TTL, but not older than the TTL plus the
+ * stale window) is returned immediately while a refresh runs in the background. Without a usable value callers
+ * wait for the refresh. However many callers ask at once, at most one {@code Balance} request is in flight.
+ * Each caller gets its own copy of the response, so one caller changing it does not affect the others.
+ * </p>
+ */
+final class BalanceCache {
+    private final Supplier<CompletableFuture<ApiResponse>> fetcher;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final LongSupplier clock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<ApiResponse>> refresh = new AtomicReference<>();
+    /**
+     * Incremented by every {@link #invalidate()}, so that a refresh started before it is not stored as fresh.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    BalanceCache(Supplier<CompletableFuture<ApiResponse>> fetcher, long ttlNanos, long staleNanos, LongSupplier clock) {
+        this.fetcher = fetcher;
+        this.ttlNanos = ttlNanos;
+        this.staleNanos = staleNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * @return Future completed with the cached or refreshed balance response.
+     */
+    CompletableFuture<ApiResponse> get() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            long age = clock.getAsLong() - current.fetchedAt;
+            if (age < ttlNanos && !current.invalidated) {
+                return CompletableFuture.completedFuture(copy(current.response));
+            }
+            if (staleNanos > 0 && age < ttlNanos + staleNanos) {
+                refresh();
+                return CompletableFuture.completedFuture(copy(current.response));
+            }
+        }
+        return refresh().thenApply(BalanceCache::copy);
+    }
+
+    /**
+     * Marks the cached value stale, e.g. after a send has spent part of the balance. It is still served during the
+     * stale window while a refresh runs.
+     */
+    void invalidate() {
+        invalidations.incrementAndGet();
+        Snapshot current = snapshot.get();
+        if (current != null && !current.invalidated) {
+            snapshot.compareAndSet(current, new Snapshot(current.response, current.fetchedAt, true));
+        }
+    }
+
+    /**
+     * Starts a refresh unless one is already in flight.
+     *
+     * @return The in-flight refresh.
+     */
+    private CompletableFuture<ApiResponse> refresh() {
+        while (true) {
+            CompletableFuture<ApiResponse> inFlight = refresh.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            CompletableFuture<ApiResponse> next = new CompletableFuture<>();
+            if (!refresh.compareAndSet(null, next)) {
+                continue;
+            }
+            long generation = invalidations.get();
+            long startedAt = clock.getAsLong();
+            CompletableFuture<ApiResponse> fetched;
+            try {
+                fetched = fetcher.get();
+            } catch (RuntimeException e) {
+                fetched = CompletableFuture.failedFuture(e);
+            }
+            fetched.whenComplete((response, error) -> {
+                if (response != null && response.getStatus() == ApiResponseCode.OK) {
+                    store(response, startedAt, generation);
+                }
+                refresh.set(null);
+                if (error != null) {
+                    next.completeExceptionally(error);
+                } else {
+                    next.complete(response);
+                }
+            });
+            return next;
+        }
+    }
+
+    /**
+     * Stores a fetched balance, already invalidated if a send happened after the fetch started: the balance may
+     * predate it. Checked again after storing, in case an invalidation saw the previous snapshot meanwhile.
+     */
+    private void store(ApiResponse response, long startedAt, long generation) {
+        long current;
+        do {
+            current = invalidations.get();
+            snapshot.set(new Snapshot(response, startedAt, current != generation));
+        } while (invalidations.get() != current);
+    }
+
+    private static ApiResponse copy(ApiResponse response) {
+        if (response == null) {
+            return null;
+        }
+        ApiResponse copy = new ApiResponse();
+        copy.setStatus(response.getStatus());
+        copy.setMessage(response.getMessage());
+        copy.setCost(response.getCost());
+        copy.setCurrency(response.getCurrency());
+        copy.setMessageFollowUpCode(response.getMessageFollowUpCode());
+        copy.setBalance(response.getBalance());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        private final ApiResponse response;
+        private final long fetchedAt;
+        private final boolean invalidated;
+
+        Snapshot(ApiResponse response, long fetchedAt, boolean invalidated) {
+            this.response = response;
+            this.fetchedAt = fetchedAt;
+            this.invalidated = invalidated;
+        }
+    }
+}
@@ -1,24 +1,57 @@
 package com.pahappa.systems.commssdk.v1;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pahappa.systems.commssdk.v1.dispatch.CircuitBreaker;
+import com.pahappa.systems.commssdk.v1.dispatch.PriorityDispatcher;
+import com.pahappa.systems.commssdk.v1.dispatch.RateLimitExceededException;
+import com.pahappa.systems.commssdk.v1.dispatch.RateLimiter;
+import com.pahappa.systems.commssdk.v1.dispatch.ResilientTransport;
+import com.pahappa.systems.commssdk.v1.dispatch.RetryPolicy;
+import com.pahappa.systems.commssdk.v1.metrics.CommsMetrics;
 import com.pahappa.systems.commssdk.v1.models.*;
+import com.pahappa.systems.commssdk.v1.transport.CommsTransport;
+import com.pahappa.systems.commssdk.v1.transport.CommsTransportException;
+import com.pahappa.systems.commssdk.v1.transport.JdkHttpTransport;
+import com.pahappa.systems.commssdk.v1.transport.JsonBody;
+import com.pahappa.systems.commssdk.v1.transport.SendSmsBody;
+import com.pahappa.systems.commssdk.v1.utils.CredentialCache;
+import com.pahappa.systems.commssdk.v1.utils.Log;
+import com.pahappa.systems.commssdk.v1.utils.LongHashSet;
+import com.pahappa.systems.commssdk.v1.utils.LongSet;
+import com.pahappa.systems.commssdk.v1.utils.MessageEncoding;
+import com.pahappa.systems.commssdk.v1.utils.MessageTemplate;
 import com.pahappa.systems.commssdk.v1.utils.NumberValidator;
+import com.pahappa.systems.commssdk.v1.utils.PhoneNumbers;
 import com.pahappa.systems.commssdk.v1.utils.Validator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
 
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 
-import static com.pahappa.systems.commssdk.v1.utils.Log.println;
 
 /**
  * Main entry point for interacting with the CommsSDK.
@@ -32,10 +65,22 @@ public class CommsSDK {
      * Shared Jackson object mapper for JSON serialization.
      */
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /**
+     * Reader for API responses, created once from {@link #OBJECT_MAPPER} and shared by every instance.
+     */
+    public static final ObjectReader RESPONSE_READER = OBJECT_MAPPER.readerFor(ApiResponse.class);
+    /**
+     * Writer for API requests, created once from {@link #OBJECT_MAPPER} and shared by every instance.
+     */
+    public static final ObjectWriter REQUEST_WRITER = OBJECT_MAPPER.writerFor(ApiRequest.class);
     /**
      * The API endpoint URL. Defaults to the live server.
      */
     public static String API_URL = "https://comms.egosms.co/api/v1/json/";
+    /**
+     * Default executor for the async API. Threads are daemons so they never keep the JVM alive.
+     */
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new DaemonThreadFactory());
 
     @Getter
     private String userName;
@@ -48,9 +93,72 @@ public class CommsSDK {
     private String senderId = "EgoSMS";
 
     @Getter
-    private boolean isAuthenticated = false;
+    private volatile boolean isAuthenticated = false;
+
+    /**
+     * Whether the credentials are checked by the first real request instead of up front.
+     */
+    @Getter
+    private boolean lazyAuthentication = false;
+
+    @Getter
+    private CommsTransport transport = JdkHttpTransport.shared();
+
+    private Executor executor = DEFAULT_EXECUTOR;
+
+    /**
+     * Maximum recipients per {@code SendSms} request. Larger sends are split into chunks.
+     */
+    @Getter
+    private int chunkSize = 500;
+
+    /**
+     * Maximum number of chunks of a single send that are in flight at the same time.
+     */
+    @Getter
+    private int maxParallelChunks = 4;
+
+    /**
+     * Client-side rate limit applied to every request, or null for none.
+     */
+    @Getter
+    private RateLimiter rateLimiter;
+
+    /**
+     * Priority-aware limit on send requests in flight, or null for none.
+     */
+    @Getter
+    private PriorityDispatcher dispatcher;
+
+    /**
+     * Cached balance, or null to query the API on every call.
+     */
+    private BalanceCache balanceCache;
+
+    /**
+     * Batches single-recipient sends into shared requests, or null to send each on its own.
+     */
+    private SendCoalescer coalescer;
+
+    /**
+     * Recently sent messages, to suppress repeats within a window, or null to send every message.
+     */
+    private DuplicateFilter duplicateFilter;
+
+    /**
+     * Request bodies of at least this many bytes are gzipped; negative to never compress.
+     */
+    private long compressionThreshold = -1;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    @Getter
+    private CommsMetrics metrics = CommsMetrics.NOOP;
 
-    private final RestTemplate client = new RestTemplate();
+    /**
+     * Whether messages are transliterated to stay in GSM-7 (see {@link MessageEncoding#transliterate(String)}).
+     */
+    @Getter
+    private boolean transliterate = false;
 
     /**
      * Private constructor. Use {@link #authenticate(String, String)} to create an instance.
@@ -66,13 +174,63 @@ public class CommsSDK {
      * @return Authenticated CommsSDK instance.
      */
     public static CommsSDK authenticate(String userName, String apiKey) {
+        return authenticate(userName, apiKey, JdkHttpTransport.shared());
+    }
+
+    /**
+     * Authenticates and creates a new CommsSDK instance that sends through the given transport.
+     *
+     * @param userName  Your account username.
+     * @param apiKey    Your API key.
+     * @param transport Transport used for every request, including the credential check.
+     * @return Authenticated CommsSDK instance.
+     */
+    public static CommsSDK authenticate(String userName, String apiKey, @NonNull CommsTransport transport) {
         CommsSDK sdk = new CommsSDK();
         sdk.userName = userName;
         sdk.apiKey = apiKey;
+        sdk.transport = transport;
         sdk.isAuthenticated = Validator.validateCredentials(sdk);
         return sdk;
     }
 
+    /**
+     * Creates a new CommsSDK instance without a validation request.
+     * <br>
+     * The credentials are considered valid once the API answers a request made with them, or straight away if they
+     * were validated recently in this JVM (see {@link CredentialCache}). Until then requests are sent anyway, so
+     * wrong credentials show up as a {@code Failed} response to the first send or balance query rather than here.
+     *
+     * @param userName Your account username.
+     * @param apiKey   Your API key.
+     * @return CommsSDK instance.
+     */
+    public static CommsSDK authenticateLazily(String userName, String apiKey) {
+        return authenticateLazily(userName, apiKey, JdkHttpTransport.shared());
+    }
+
+    /**
+     * Creates a new CommsSDK instance that sends through the given transport, without a validation request.
+     *
+     * @param userName  Your account username.
+     * @param apiKey    Your API key.
+     * @param transport Transport used for every request.
+     * @return CommsSDK instance.
+     * @see #authenticateLazily(String, String)
+     */
+    public static CommsSDK authenticateLazily(String userName, String apiKey, @NonNull CommsTransport transport) {
+        if (userName == null || apiKey == null) {
+            throw new IllegalArgumentException("Either API Key or Username and Password must be provided");
+        }
+        CommsSDK sdk = new CommsSDK();
+        sdk.userName = userName;
+        sdk.apiKey = apiKey;
+        sdk.transport = transport;
+        sdk.lazyAuthentication = true;
+        sdk.isAuthenticated = CredentialCache.isValidated(API_URL, userName, apiKey);
+        return sdk;
+    }
+
     /**
      * Switches the SDK to use the sandbox environment (for testing).
      * <br>
@@ -104,6 +262,232 @@ public class CommsSDK {
         return this;
     }
 
+    /**
+     * Sets the executor used to run the async API ({@code sendSMSAsync}, {@code querySendSMSAsync}, {@code queryBalanceAsync}).
+     * <br>
+     * Defaults to a shared pool of daemon threads.
+     *
+     * @param executor Executor for async requests.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withExecutor(@NonNull Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Configures how large recipient lists are split.
+     * <br>
+     * Sends with more than {@code chunkSize} valid numbers go out as several {@code SendSms} requests, at most
+     * {@code maxParallelChunks} at a time, and are answered with a {@link BulkApiResponse}.
+     *
+     * @param chunkSize         Maximum recipients per request (default 500).
+     * @param maxParallelChunks Maximum concurrent requests per send (default 4).
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withChunking(int chunkSize, int maxParallelChunks) {
+        if (chunkSize < 1 || maxParallelChunks < 1) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.maxParallelChunks = maxParallelChunks;
+        return this;
+    }
+
+    /**
+     * Sets the transport used for subsequent requests.
+     *
+     * @param transport Transport implementation, e.g. a {@link JdkHttpTransport} with custom timeouts.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withTransport(@NonNull CommsTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Retries failed requests and/or guards the endpoint with a circuit breaker, by wrapping the current transport
+     * in a {@link ResilientTransport}. Calling it again replaces the previous settings; pass two nulls to remove them.
+     * <br>
+     * Only transport errors and 5xx answers are retried, never {@code Failed} API responses. {@code SendSms} requests
+     * are only retried when they failed before being sent (connection refused, connect timeout, unknown host): a read
+     * timeout or a 5xx may come after the gateway accepted the messages, and retrying would deliver and bill them
+     * twice. {@link RetryPolicy#withAmbiguousSendRetries(boolean)} accepts that risk. While the breaker is open
+     * requests fail immediately with a {@link com.pahappa.systems.commssdk.v1.dispatch.CircuitBreakerOpenException}.
+     *
+     * @param retryPolicy    Retry policy, or null for no retries.
+     * @param circuitBreaker Circuit breaker, or null for none.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withResilience(RetryPolicy retryPolicy, CircuitBreaker circuitBreaker) {
+        CommsTransport base = transport instanceof ResilientTransport ? ((ResilientTransport) transport).getDelegate() : transport;
+        this.transport = retryPolicy == null && circuitBreaker == null ? base : new ResilientTransport(base, retryPolicy, circuitBreaker);
+        return this;
+    }
+
+    /**
+     * Sets a client-side rate limit for requests made through this instance.
+     * <br>
+     * Share one {@link RateLimiter} between instances that use the same account to limit them together.
+     * Pass null to remove the limit.
+     *
+     * @param rateLimiter Rate limiter, e.g. {@code new RateLimiter(Mode.BLOCK).withMessagesPerSecond(100, 500)}.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withRateLimit(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * Limits the number of send requests in flight and serves waiting requests by {@link MessagePriority}, so that
+     * {@code HIGHEST} messages (e.g. OTPs) are not held up by large low-priority sends. Pass null to remove it.
+     * <br>
+     * Share one {@link PriorityDispatcher} between instances to apply the limit to all of them together.
+     *
+     * @param dispatcher Dispatcher, e.g. {@code new PriorityDispatcher(8)}.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withPriorityDispatch(PriorityDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        return this;
+    }
+
+    /**
+     * Gathers single-recipient sends (one number after validation) into batches sent as one {@code SendSms}
+     * request, trading up to {@code maxDelay} of latency for far fewer requests when many threads send at once.
+     * <br>
+     * Messages are batched per sender ID and priority, so rate limits and priority dispatch apply to batches as to
+     * single sends, {@link MessagePriority#HIGHEST} (the default priority) included. A batch is sent once it holds
+     * {@code maxBatchSize} messages or {@code maxDelay} after its first message. Each caller gets the batch's status
+     * and follow-up code, with the batch cost shared out by message segments. Pass a null {@code maxDelay} to turn
+     * coalescing off.
+     *
+     * @param maxDelay     Longest a message waits for its batch to fill, e.g. 20 milliseconds.
+     * @param maxBatchSize Messages per batch, at most the chunk size.
+     * @return This CommsSDK instance (for chaining).
+     * @see #withCoalescing(Duration, Duration, int)
+     */
+    public CommsSDK withCoalescing(Duration maxDelay, int maxBatchSize) {
+        return withCoalescing(maxDelay, maxDelay, maxBatchSize);
+    }
+
+    /**
+     * Like {@link #withCoalescing(Duration, int)}, with a separate delay for {@link MessagePriority#HIGHEST}
+     * messages, e.g. a few milliseconds so that OTPs are barely held back.
+     *
+     * @param maxDelay        Longest a message waits for its batch to fill, e.g. 20 milliseconds.
+     * @param highestMaxDelay Longest a {@code HIGHEST} priority message waits, or null to send those on their own.
+     * @param maxBatchSize    Messages per batch, at most the chunk size.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withCoalescing(Duration maxDelay, Duration highestMaxDelay, int maxBatchSize) {
+        if (maxDelay == null) {
+            this.coalescer = null;
+            return this;
+        }
+        if (maxDelay.isNegative() || (highestMaxDelay != null && highestMaxDelay.isNegative())
+                || maxBatchSize < 1 || maxBatchSize > chunkSize) {
+            throw new IllegalArgumentException("Max delay cannot be negative and max batch size must be between 1 and the chunk size");
+        }
+        this.coalescer = new SendCoalescer(this::sendBatch, maxDelay.toNanos(),
+                highestMaxDelay == null ? -1 : highestMaxDelay.toNanos(), maxBatchSize, command -> executor.execute(command));
+        return this;
+    }
+
+    /**
+     * Suppresses a message sent to a number again with the same text and sender ID within {@code window}, e.g. by
+     * an upstream retry. Repeats are dropped before any request is made; a send whose every message is a repeat
+     * returns an {@code OK} response with no cost. Messages whose send fails are forgotten, so that a retry goes
+     * through. Personalized sends are not checked.
+     * <br>
+     * Messages are remembered as 64-bit fingerprints in a few fixed-size tables (see {@link DuplicateFilter}), so
+     * memory is bounded by {@code maxMessages}: at most four tables of 12 to 24 bytes per message. Beyond
+     * {@code maxMessages} in a third of the window, further messages are sent without being checked. Pass a null
+     * {@code window} to turn suppression off.
+     *
+     * @param window      How long a message is remembered, e.g. 30 seconds.
+     * @param maxMessages Messages remembered per third of the window.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withDuplicateSuppression(Duration window, int maxMessages) {
+        if (window == null) {
+            this.duplicateFilter = null;
+            return this;
+        }
+        if (window.isNegative() || window.isZero() || maxMessages < 1) {
+            throw new IllegalArgumentException("Window must be positive and max messages at least 1");
+        }
+        this.duplicateFilter = new DuplicateFilter(window.toNanos(), maxMessages, System::nanoTime);
+        return this;
+    }
+
+    /**
+     * Gzips request bodies of {@code thresholdBytes} or more and sends them with {@code Content-Encoding: gzip}.
+     * A {@code SendSms} request repeats the message and sender ID for every number, so a large one shrinks many
+     * times over. Bodies are compressed while they are generated and streamed, never buffered whole; bodies whose
+     * size is not known in advance (personalized sends) are always compressed. Pass a negative threshold to turn
+     * compression off (the default).
+     *
+     * @param thresholdBytes Smallest body size to compress, e.g. 8192.
+     * @param level          Deflate level from 1 (fastest) to 9 (smallest); 1 to 3 already get most of the gain.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withCompression(long thresholdBytes, int level) {
+        if (thresholdBytes >= 0 && (level < 1 || level > 9)) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9");
+        }
+        this.compressionLevel = level;
+        this.compressionThreshold = thresholdBytes;
+        return this;
+    }
+
+    /**
+     * Replaces characters that would make a message UCS-2 (typographic quotes and dashes, accented letters outside
+     * the GSM alphabet, ...) before sending, so that each segment carries 153-160 characters instead of 67-70.
+     *
+     * @param transliterate true to transliterate messages, false (the default) to send them as given.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withTransliteration(boolean transliterate) {
+        this.transliterate = transliterate;
+        return this;
+    }
+
+    /**
+     * Records latencies, outcomes and costs of the requests made by this instance.
+     *
+     * @param metrics Metrics implementation, e.g. a shared {@link com.pahappa.systems.commssdk.v1.metrics.SimpleCommsMetrics}.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withMetrics(@NonNull CommsMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Caches the balance returned by {@link #getBalance()}, {@link #queryBalance()} and {@link #queryBalanceAsync()}.
+     * <br>
+     * A cached balance younger than {@code ttl} is returned without a request. After that, and after every successful
+     * send, it is still returned for up to {@code staleWindow} while it is refreshed in the background. Concurrent
+     * callers share a single {@code Balance} request. Pass a null {@code ttl} to turn the cache off.
+     *
+     * @param ttl         How long a balance is fresh, e.g. 30 seconds.
+     * @param staleWindow How long a stale balance may still be returned while it is refreshed; zero to always wait.
+     * @return This CommsSDK instance (for chaining).
+     */
+    public CommsSDK withBalanceCache(Duration ttl, Duration staleWindow) {
+        if (ttl == null) {
+            this.balanceCache = null;
+            return this;
+        }
+        if (ttl.isNegative() || staleWindow == null || staleWindow.isNegative()) {
+            throw new IllegalArgumentException("TTL and stale window cannot be negative");
+        }
+        this.balanceCache = new BalanceCache(this::fetchBalanceAsync, ttl.toNanos(), staleWindow.toNanos(), System::nanoTime);
+        return this;
+    }
+
     /**
      * Sends an SMS to a single number with default sender ID and highest priority.
      *
@@ -197,18 +581,20 @@ public class CommsSDK {
      * @return true if sent successfully, false otherwise.
      */
     public boolean sendSMS(List<String> numbers, String message, String senderId, MessagePriority priority) {
-        ApiResponse apiResponse = querySendSMS(numbers, message, senderId, priority);
+        return isSent(querySendSMS(numbers, message, senderId, priority));
+    }
+
+    private static boolean isSent(ApiResponse apiResponse) {
         if (apiResponse == null) {
-            println("Failed to get a response from the server.");
+            Log.warn("Failed to get a response from the server.");
             return false;
         }
         switch (apiResponse.getStatus()) {
             case OK:
-                println("SMS sent successfully.");
-                println("MessageFollowUpUniqueCode: " + apiResponse.getMessageFollowUpCode());
+                Log.info("SMS sent successfully. MessageFollowUpUniqueCode: %s", apiResponse.getMessageFollowUpCode());
                 return true;
             case Failed:
-                println("Failed: " + apiResponse.getMessage());
+                Log.warn("Failed: %s", apiResponse.getMessage());
                 return false;
             default:
                 throw new RuntimeException("Unexpected response status: " + apiResponse.getStatus());
@@ -223,116 +609,1012 @@ public class CommsSDK {
      * @param senderId Sender ID.
      * @param priority Message priority.
      * @return ApiResponse object with status and details, or null on error.
+     * Sends split into chunks (see {@link #withChunking(int, int)}) return a {@link BulkApiResponse}.
+     * @throws RateLimitExceededException if a fail-fast rate limit (see {@link #withRateLimit(RateLimiter)}) is exceeded.
      */
     public ApiResponse querySendSMS(List<String> numbers, String message, String senderId, MessagePriority priority) {
-        if (sdkNotAuthenticated()) return null;
-        if (numbers == null || numbers.isEmpty()) {
-            throw new IllegalArgumentException("Numbers list cannot be empty");
-        }
-        if (message == null || message.isEmpty()) {
-            throw new IllegalArgumentException("Message cannot be empty");
-        }
-        if (message.length() == 1) {
-            throw new IllegalArgumentException("Message cannot be a single character");
-        }
-        if (senderId == null || senderId.trim().isEmpty()) {
-            senderId = this.senderId;
-        }
-        if (senderId != null && senderId.length() > 11) {
-            println("Warning: Sender ID length exceeds 11 characters. Some networks may truncate or reject messages.");
+        SendSmsBody body = buildSendRequest(numbers, message, senderId, priority);
+        if (body == null) return null;
+        if (body.size() == 0) return suppressed();
+        if (body.size() > chunkSize) {
+            return sendChunks(body).join();
         }
-        if (priority == null) {
-            priority = MessagePriority.HIGHEST;
-        }
-        numbers = NumberValidator.validateNumbers(numbers);
-        if (numbers.isEmpty()) {
-            println("No valid phone numbers provided. Please check inputs.");
-            return null;
-        }
-        ApiRequest apiRequest = new ApiRequest();
-        apiRequest.setMethod("SendSms");
-        List<MessageModel> messageModels = new ArrayList<>();
-        for (String num : numbers) {
-            MessageModel messageModel = new MessageModel();
-            messageModel.setNumber(num);
-            messageModel.setMessage(message);
-            messageModel.setSenderId(senderId);
-            messageModel.setPriority(priority);
-            messageModels.add(messageModel);
-        }
-        apiRequest.setMessageData(messageModels);
-        apiRequest.setUserdata(new UserData(userName, apiKey));
-        ResponseEntity<String> res = sendAsContentTypeJson(apiRequest);
-        try {
-            return OBJECT_MAPPER.readValue(res.getBody(), ApiResponse.class);
-        } catch (Exception e) {
-            println("Failed to send SMS: " + e.getMessage());
+        if (coalescer != null && body.size() == 1 && coalescer.coalesces(body.getPriority())) {
             try {
-                println("Request: " + OBJECT_MAPPER.writeValueAsString(apiRequest));
-            } catch (Exception ignored) {
+                return coalesce(body).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
             }
-            return null;
         }
+        ApiResponse response;
+        try {
+            response = readSendResponse(post(body), body.size());
+        } catch (RuntimeException e) {
+            forgetIfFailed(body, null, e);
+            throw e;
+        }
+        forgetIfFailed(body, response, null);
+        return response;
     }
 
-    private @NonNull ResponseEntity<String> sendAsContentTypeJson(ApiRequest apiRequest) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<ApiRequest> entity = new HttpEntity<>(apiRequest, headers);
-        return client.postForEntity(API_URL, entity, String.class);
+    /**
+     * Counts the SMS segments a send would be billed for, without a request: the segments of the message (after
+     * transliteration, if enabled) times the numbers that pass validation, duplicates removed.
+     *
+     * @param numbers List of phone numbers.
+     * @param message Message content.
+     * @return Total segments, 0 if there is nothing to send.
+     */
+    public long estimateSegments(List<String> numbers, String message) {
+        if (numbers == null || numbers.isEmpty() || message == null) {
+            return 0;
+        }
+        int segments = MessageEncoding.segments(transliterate ? MessageEncoding.transliterate(message) : message);
+        return segments == 0 ? 0 : (long) segments * NumberValidator.validateNumbersCompact(numbers).size();
     }
 
     /**
-     * Checks if the SDK is authenticated. If not, attempts to re-authenticate.
+     * Estimates the {@code Cost} of a send without a request, see {@link #estimateSegments(List, String)}.
      *
-     * @return true if not authenticated, false if authenticated.
+     * @param numbers         List of phone numbers.
+     * @param message         Message content.
+     * @param pricePerSegment Price of one SMS segment on the account, in the account's currency.
+     * @return Estimated cost.
      */
-    private boolean sdkNotAuthenticated() {
-        if (!isAuthenticated) {
-            println("SDK is not authenticated. Please authenticate before performing actions.");
-            println("Attempting to re-authenticate with provided credentials...");
-            isAuthenticated = Validator.validateCredentials(this);
-            return !isAuthenticated;
-        }
-        return false;
+    public long estimateCost(List<String> numbers, String message, long pricePerSegment) {
+        return estimateSegments(numbers, message) * pricePerSegment;
     }
 
     /**
-     * Queries the balance and returns the full API response object.
+     * Validates the inputs and builds the {@code SendSms} request.
      *
-     * @return ApiResponse object with balance and details, or null on error.
+     * @return The request to send, or null if there is nothing to send.
      */
-    public ApiResponse queryBalance() {
-        if (sdkNotAuthenticated()) {
-            return null;
+    private SendSmsBody buildSendRequest(List<String> numbers, String message, String senderId, MessagePriority priority) {
+        if (sdkNotAuthenticated()) return null;
+        return buildSendBody(numbers, message, senderId, priority);
+    }
+
+    /**
+     * Validates the inputs and builds the {@code SendSms} request, assuming the SDK is authenticated.
+     *
+     * @return The request to send, or null if there is nothing to send.
+     */
+    private SendSmsBody buildSendBody(List<String> numbers, String message, String senderId, MessagePriority priority) {
+        if (numbers == null || numbers.isEmpty()) {
+            throw new IllegalArgumentException("Numbers list cannot be empty");
         }
-        ApiRequest apiRequest = new ApiRequest();
-        apiRequest.setMethod("Balance");
-        apiRequest.setUserdata(new UserData(userName, apiKey));
-        try {
-            ResponseEntity<String> res = sendAsContentTypeJson(apiRequest);
-            return OBJECT_MAPPER.readValue(res.getBody(), ApiResponse.class);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to get balance: " + e.getMessage(), e);
+        SendSmsBody template = buildMessageTemplate(message, senderId, priority);
+        long start = System.nanoTime();
+        CommsMetrics metrics = this.metrics;
+        PhoneNumbers validNumbers = NumberValidator.validateNumbersCompact(numbers, metrics::numbersRejected);
+        metrics.recordPhase(CommsMetrics.Phase.VALIDATE, System.nanoTime() - start);
+        if (validNumbers.isEmpty()) {
+            Log.warn("No valid phone numbers provided. Please check inputs.");
+            return null;
         }
+        return template.withNumbers(suppressDuplicates(validNumbers, template));
     }
 
     /**
-     * Gets your current SMS account balance.
+     * Removes the numbers that were already sent this message within the duplicate suppression window, and
+     * remembers the others.
      *
-     * @return Balance as a double.
+     * @return The numbers to send to, possibly none.
      */
-    public double getBalance() {
-        return queryBalance().getBalance();
+    private PhoneNumbers suppressDuplicates(PhoneNumbers numbers, SendSmsBody template) {
+        DuplicateFilter filter = duplicateFilter;
+        if (filter == null) {
+            return numbers;
+        }
+        long messageHash = DuplicateFilter.hash(template.getMessage(), template.getSenderId());
+        long[] keys = null;
+        int size = 0;
+        for (int i = 0; i < numbers.size(); i++) {
+            long key = numbers.key(i);
+            if (filter.add(DuplicateFilter.fingerprint(key, messageHash))) {
+                if (keys != null) {
+                    keys[size] = key;
+                }
+                size++;
+            } else if (keys == null) {
+                keys = numbers.toKeyArray(); // first duplicate, copy what is kept so far
+            }
+        }
+        if (keys == null) {
+            return numbers;
+        }
+        Log.info("Suppressed %s duplicate message(s).", numbers.size() - size);
+        return new PhoneNumbers(keys, size);
     }
 
     /**
-     * Returns a string representation of the SDK instance.
-     *
-     * @return String representation.
+     * Forgets the messages of a send that failed, so that they are not suppressed when it is retried.
      */
-    @Override
-    public String toString() {
-        return "SDK(" + userName + " => " + apiKey + ")";
+    private void forgetIfFailed(SendSmsBody body, ApiResponse response, Throwable error) {
+        DuplicateFilter filter = duplicateFilter;
+        if (filter == null || body.isPersonalized()
+                || (error == null && response != null && response.getStatus() == ApiResponseCode.OK)) {
+            return;
+        }
+        long messageHash = DuplicateFilter.hash(body.getMessage(), body.getSenderId());
+        List<String> numbers = body.getNumbers();
+        if (numbers instanceof PhoneNumbers) {
+            PhoneNumbers phoneNumbers = (PhoneNumbers) numbers;
+            for (int i = 0; i < phoneNumbers.size(); i++) {
+                filter.remove(DuplicateFilter.fingerprint(phoneNumbers.key(i), messageHash));
+            }
+        }
+    }
+
+    /**
+     * Response to a send whose every message was suppressed as a duplicate.
+     */
+    private static ApiResponse suppressed() {
+        ApiResponse response = new ApiResponse();
+        response.setStatus(ApiResponseCode.OK);
+        response.setMessage("Duplicate of a message already sent");
+        response.setCost(0);
+        return response;
+    }
+
+    /**
+     * Validates the message inputs and builds a {@code SendSms} request with no numbers yet.
+     */
+    private SendSmsBody buildMessageTemplate(String message, String senderId, MessagePriority priority) {
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be empty");
+        }
+        if (message.length() == 1) {
+            throw new IllegalArgumentException("Message cannot be a single character");
+        }
+        senderId = senderId(senderId);
+        if (priority == null) {
+            priority = MessagePriority.HIGHEST;
+        }
+        if (transliterate) {
+            message = MessageEncoding.transliterate(message);
+        }
+        return new SendSmsBody(new UserData(userName, apiKey), message, senderId, priority, Collections.emptyList());
+    }
+
+    /**
+     * @return The sender ID to send with, the instance default if none is given.
+     */
+    private String senderId(String senderId) {
+        if (senderId == null || senderId.trim().isEmpty()) {
+            senderId = this.senderId;
+        }
+        if (senderId != null && senderId.length() > 11) {
+            Log.warn("Sender ID length exceeds 11 characters. Some networks may truncate or reject messages.");
+        }
+        return senderId;
+    }
+
+    /**
+     * Adds a single-recipient send to the coalescer's current batch.
+     */
+    private CompletableFuture<ApiResponse> coalesce(SendSmsBody body) {
+        MessageModel messageModel = new MessageModel();
+        messageModel.setNumber(body.getNumbers().get(0));
+        messageModel.setMessage(body.getMessage());
+        messageModel.setSenderId(body.getSenderId());
+        messageModel.setPriority(body.getPriority());
+        return coalescer.submit(messageModel).whenComplete((response, error) -> forgetIfFailed(body, response, error));
+    }
+
+    /**
+     * Sends a coalesced batch as one {@code SendSms} request. All its messages share a sender ID and priority,
+     * which the request is rate limited and dispatched under.
+     */
+    private CompletableFuture<ApiResponse> sendBatch(List<MessageModel> messages) {
+        ApiRequest apiRequest = new ApiRequest();
+        apiRequest.setMethod("SendSms");
+        apiRequest.setUserdata(new UserData(userName, apiKey));
+        apiRequest.setMessageData(messages);
+        JsonBody body = toJson(apiRequest);
+        MessageModel first = messages.get(0);
+        return dispatched(first.getPriority(), () -> postAsync(body, first.getSenderId(), messages.size()))
+                .thenApplyAsync(res -> readSendResponse(res, messages.size()), executor);
+    }
+
+    private ApiResponse readSendResponse(byte[] res, int messages) {
+        try {
+            ApiResponse response = parse(res, messages);
+            BalanceCache balanceCache = this.balanceCache;
+            if (balanceCache != null && response.getStatus() == ApiResponseCode.OK) {
+                balanceCache.invalidate();
+            }
+            return response;
+        } catch (Exception e) {
+            Log.warn("Failed to send SMS: %s", e.getMessage());
+            // a summary only: the body holds the API key
+            Log.debug("Request: SendSms with %s message(s)", messages);
+            return null;
+        }
+    }
+
+    /**
+     * Sends an SMS to numbers read from a stream, e.g. one backed by a database cursor.
+     *
+     * @param numbers  Stream of recipient phone numbers.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return true if every number was sent successfully, false otherwise.
+     * @see #querySendSMS(Iterator, String, String, MessagePriority)
+     */
+    public boolean sendSMS(Stream<String> numbers, String message, String senderId, MessagePriority priority) {
+        return isSent(querySendSMS(numbers, message, senderId, priority));
+    }
+
+    /**
+     * Sends an SMS to numbers read from an iterator, e.g. one backed by a database cursor.
+     *
+     * @param numbers  Iterator over recipient phone numbers.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return true if every number was sent successfully, false otherwise.
+     * @see #querySendSMS(Iterator, String, String, MessagePriority)
+     */
+    public boolean sendSMS(Iterator<String> numbers, String message, String senderId, MessagePriority priority) {
+        return isSent(querySendSMS(numbers, message, senderId, priority));
+    }
+
+    /**
+     * Sends an SMS to numbers pulled from a supplier until it returns null.
+     *
+     * @param numbers  Supplier of recipient phone numbers, returning null when there are no more.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return true if every number was sent successfully, false otherwise.
+     * @see #querySendSMS(Iterator, String, String, MessagePriority)
+     */
+    public boolean sendSMS(Supplier<String> numbers, String message, String senderId, MessagePriority priority) {
+        return isSent(querySendSMS(numbers, message, senderId, priority));
+    }
+
+    /**
+     * Sends an SMS to numbers read from a stream and returns the aggregate API response.
+     *
+     * @param numbers  Stream of recipient phone numbers. The stream is consumed but not closed.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return BulkApiResponse with the combined result, or null on error.
+     * @see #querySendSMS(Iterator, String, String, MessagePriority)
+     */
+    public BulkApiResponse querySendSMS(Stream<String> numbers, String message, String senderId, MessagePriority priority) {
+        if (numbers == null) {
+            throw new IllegalArgumentException("Numbers cannot be null");
+        }
+        return querySendSMS(numbers.iterator(), message, senderId, priority);
+    }
+
+    /**
+     * Sends an SMS to numbers pulled from a supplier until it returns null, and returns the aggregate API response.
+     *
+     * @param numbers  Supplier of recipient phone numbers, returning null when there are no more.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return BulkApiResponse with the combined result, or null on error.
+     * @see #querySendSMS(Iterator, String, String, MessagePriority)
+     */
+    public BulkApiResponse querySendSMS(Supplier<String> numbers, String message, String senderId, MessagePriority priority) {
+        if (numbers == null) {
+            throw new IllegalArgumentException("Numbers cannot be null");
+        }
+        return querySendSMS(new Iterator<String>() {
+            private String next = numbers.get();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (next == null) throw new NoSuchElementException();
+                String current = next;
+                next = numbers.get();
+                return current;
+            }
+        }, message, senderId, priority);
+    }
+
+    /**
+     * Sends an SMS to numbers read from an iterator and returns the aggregate API response.
+     * <p>
+     * Numbers are validated and de-duplicated one at a time and sent in windows of the chunk size as they
+     * are read, with at most {@code maxParallelChunks} windows in flight, windows waiting for the rate limit
+     * included; reading pauses while that limit is reached. Memory therefore depends on the window settings rather than on the audience size, apart from the
+     * set of numbers already seen, which costs a few primitive {@code long}s per unique number.
+     * </p>
+     *
+     * @param numbers  Iterator over recipient phone numbers.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return BulkApiResponse with the combined result, or null on error.
+     */
+    public BulkApiResponse querySendSMS(Iterator<String> numbers, String message, String senderId, MessagePriority priority) {
+        if (sdkNotAuthenticated()) return null;
+        if (numbers == null) {
+            throw new IllegalArgumentException("Numbers cannot be null");
+        }
+        SendSmsBody template = buildMessageTemplate(message, senderId, priority);
+        Semaphore inFlight = new Semaphore(maxParallelChunks);
+        List<Window> windows = new ArrayList<>();
+        LongSet seen = new LongHashSet();
+        DuplicateFilter filter = duplicateFilter;
+        long messageHash = filter == null ? 0 : DuplicateFilter.hash(template.getMessage(), template.getSenderId());
+        long[] window = new long[chunkSize];
+        int size = 0;
+        long rejected = 0;
+        long suppressed = 0;
+        long validateStart = System.nanoTime();
+        while (numbers.hasNext()) {
+            long key = NumberValidator.validateNumberKey(numbers.next());
+            if (key == NumberValidator.INVALID) {
+                rejected++;
+                continue;
+            }
+            if (!seen.add(key)) {
+                continue;
+            }
+            if (filter != null && !filter.add(DuplicateFilter.fingerprint(key, messageHash))) {
+                suppressed++;
+                continue;
+            }
+            window[size++] = key;
+            if (size == chunkSize) {
+                metrics.recordPhase(CommsMetrics.Phase.VALIDATE, System.nanoTime() - validateStart);
+                windows.add(sendWindow(template.withNumbers(new PhoneNumbers(window, size)), inFlight));
+                window = new long[chunkSize];
+                size = 0;
+                validateStart = System.nanoTime();
+            }
+        }
+        metrics.numbersRejected(rejected);
+        if (size > 0) {
+            metrics.recordPhase(CommsMetrics.Phase.VALIDATE, System.nanoTime() - validateStart);
+            windows.add(sendWindow(template.withNumbers(new PhoneNumbers(window, size)), inFlight));
+        }
+        if (suppressed > 0) {
+            Log.info("Suppressed %s duplicate message(s).", suppressed);
+        }
+        if (windows.isEmpty()) {
+            if (suppressed > 0) {
+                return BulkApiResponse.of(suppressed());
+            }
+            Log.warn("No valid phone numbers provided. Please check inputs.");
+            return null;
+        }
+        return combine(windows);
+    }
+
+    /**
+     * Sends a personalized message to each recipient, see
+     * {@link #querySendSMS(MessageTemplate, Iterable, String, MessagePriority)}.
+     *
+     * @return true if every message was sent successfully, false otherwise.
+     */
+    public boolean sendSMS(MessageTemplate template, Iterable<? extends Map<String, ?>> rows, String senderId, MessagePriority priority) {
+        return isSent(querySendSMS(template, rows, senderId, priority));
+    }
+
+    /**
+     * Sends a personalized message to each recipient, packing up to the chunk size of messages into each
+     * {@code SendSms} request, and returns the aggregate API response.
+     * <p>
+     * Each row holds the recipient under {@link MessageTemplate#NUMBER} and the template's values under their
+     * placeholder names. Messages are rendered while each request is written, into a buffer reused for the whole
+     * request, and rows are read as windows are sent, like {@link #querySendSMS(Iterator, String, String, MessagePriority)}.
+     * Rows with an invalid number or a missing value are skipped. Numbers are not de-duplicated, since one recipient
+     * may get several different messages.
+     * </p>
+     * <pre>{@code
+     * MessageTemplate template = MessageTemplate.compile("Hi {name}, UGX {amount} was received.");
+     * sdk.querySendSMS(template, List.of(
+     *         Map.of("number", "0712345678", "name", "Jane", "amount", 15000),
+     *         Map.of("number", "0787654321", "name", "John", "amount", 9000)), "MyBrand", MessagePriority.HIGH);
+     * }</pre>
+     *
+     * @param template Compiled message template.
+     * @param rows     Recipient number and template values of each message.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return BulkApiResponse with the combined result, or null on error.
+     */
+    public BulkApiResponse querySendSMS(@NonNull MessageTemplate template, Iterable<? extends Map<String, ?>> rows,
+                                        String senderId, MessagePriority priority) {
+        if (sdkNotAuthenticated()) return null;
+        if (rows == null) {
+            throw new IllegalArgumentException("Rows cannot be null");
+        }
+        if (template.getLiteralLength() == 0 && template.getVariables().isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be empty");
+        }
+        SendSmsBody body = SendSmsBody.personalized(new UserData(userName, apiKey), template, transliterate,
+                senderId(senderId), priority == null ? MessagePriority.HIGHEST : priority);
+        Semaphore inFlight = new Semaphore(maxParallelChunks);
+        List<Window> windows = new ArrayList<>();
+        long[] window = new long[chunkSize];
+        List<Map<String, ?>> windowRows = new ArrayList<>(chunkSize);
+        long rejected = 0;
+        long validateStart = System.nanoTime();
+        for (Map<String, ?> row : rows) {
+            Object number = row == null ? null : row.get(MessageTemplate.NUMBER);
+            long key = NumberValidator.validateNumberKey(number == null ? null : number.toString());
+            if (key == NumberValidator.INVALID || !template.accepts(row)) {
+                rejected++;
+                continue;
+            }
+            window[windowRows.size()] = key;
+            windowRows.add(row);
+            if (windowRows.size() == chunkSize) {
+                metrics.recordPhase(CommsMetrics.Phase.VALIDATE, System.nanoTime() - validateStart);
+                windows.add(sendWindow(body.withRecipients(new PhoneNumbers(window, chunkSize), windowRows), inFlight));
+                window = new long[chunkSize];
+                windowRows = new ArrayList<>(chunkSize);
+                validateStart = System.nanoTime();
+            }
+        }
+        metrics.numbersRejected(rejected);
+        if (!windowRows.isEmpty()) {
+            metrics.recordPhase(CommsMetrics.Phase.VALIDATE, System.nanoTime() - validateStart);
+            windows.add(sendWindow(body.withRecipients(new PhoneNumbers(window, windowRows.size()), windowRows), inFlight));
+        }
+        if (windows.isEmpty()) {
+            Log.warn("No valid recipients provided. Please check inputs.");
+            return null;
+        }
+        return combine(windows);
+    }
+
+    private static BulkApiResponse combine(List<Window> windows) {
+        List<List<String>> chunkNumbers = new ArrayList<>(windows.size());
+        ApiResponse[] responses = new ApiResponse[windows.size()];
+        Throwable[] errors = new Throwable[windows.size()];
+        for (int i = 0; i < windows.size(); i++) {
+            Window sent = windows.get(i);
+            sent.done.join();
+            chunkNumbers.add(sent.numbers);
+            responses[i] = sent.response;
+            errors[i] = sent.error;
+        }
+        return BulkApiResponse.combine(chunkNumbers, responses, errors);
+    }
+
+    /**
+     * Sends one window of a streamed send once an in-flight slot is free.
+     */
+    private Window sendWindow(SendSmsBody body, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        Window window = new Window(body.getNumbers());
+        CompletableFuture<ApiResponse> response;
+        try {
+            // a rate limited window waits without blocking the reader, holding its in-flight slot meanwhile
+            response = postAsync(body)
+                    .thenApplyAsync(res -> readSendResponse(res, body.size()), executor);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        window.done = response.handle((apiResponse, error) -> {
+            forgetIfFailed(body, apiResponse, error);
+            window.response = apiResponse;
+            window.error = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (apiResponse != null && apiResponse.getStatus() == ApiResponseCode.OK) {
+                window.numbers = Collections.emptyList(); // only failed windows need their numbers
+            }
+            inFlight.release();
+            return null;
+        });
+        return window;
+    }
+
+    private static final class Window {
+        private volatile List<String> numbers;
+        private volatile ApiResponse response;
+        private volatile Throwable error;
+        private CompletableFuture<Void> done;
+
+        Window(List<String> numbers) {
+            this.numbers = numbers;
+        }
+    }
+
+    /**
+     * Sends an SMS to a single number with default sender ID and highest priority, without blocking the caller.
+     *
+     * @param number  Recipient phone number.
+     * @param message Message text.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(String number, String message) {
+        return sendSMSAsync(Collections.singletonList(number), message, senderId, MessagePriority.HIGHEST);
+    }
+
+    /**
+     * Sends an SMS to a single number with custom sender ID, without blocking the caller.
+     *
+     * @param number   Recipient phone number.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(String number, String message, String senderId) {
+        return sendSMSAsync(Collections.singletonList(number), message, senderId, MessagePriority.HIGHEST);
+    }
+
+    /**
+     * Sends an SMS to a single number with custom sender ID and priority, without blocking the caller.
+     *
+     * @param number   Recipient phone number.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(String number, String message, String senderId, MessagePriority priority) {
+        return sendSMSAsync(Collections.singletonList(number), message, senderId, priority);
+    }
+
+    /**
+     * Sends an SMS to a single number with default sender ID and custom priority, without blocking the caller.
+     *
+     * @param number   Recipient phone number.
+     * @param message  Message text.
+     * @param priority Message priority.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(String number, String message, MessagePriority priority) {
+        return sendSMSAsync(Collections.singletonList(number), message, senderId, priority);
+    }
+
+    /**
+     * Sends an SMS to multiple numbers with default sender ID and highest priority, without blocking the caller.
+     *
+     * @param numbers List of recipient phone numbers.
+     * @param message Message text.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(List<String> numbers, String message) {
+        return sendSMSAsync(numbers, message, senderId, MessagePriority.HIGHEST);
+    }
+
+    /**
+     * Sends an SMS to multiple numbers with custom sender ID, without blocking the caller.
+     *
+     * @param numbers  List of recipient phone numbers.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(List<String> numbers, String message, String senderId) {
+        return sendSMSAsync(numbers, message, senderId, MessagePriority.HIGHEST);
+    }
+
+    /**
+     * Sends an SMS to multiple numbers with default sender ID and custom priority, without blocking the caller.
+     *
+     * @param numbers  List of recipient phone numbers.
+     * @param message  Message text.
+     * @param priority Message priority.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(List<String> numbers, String message, MessagePriority priority) {
+        return sendSMSAsync(numbers, message, senderId, priority);
+    }
+
+    /**
+     * Sends an SMS to multiple numbers with custom sender ID and priority, without blocking the caller.
+     * <br>
+     * Logs the outcome the same way as {@link #sendSMS(List, String, String, MessagePriority)}.
+     *
+     * @param numbers  List of recipient phone numbers.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> sendSMSAsync(List<String> numbers, String message, String senderId, MessagePriority priority) {
+        return querySendSMSAsync(numbers, message, senderId, priority).thenApply(apiResponse -> {
+            isSent(apiResponse);
+            return apiResponse;
+        });
+    }
+
+    /**
+     * Sends an SMS without blocking the caller and returns the full API response object.
+     * <br>
+     * Inputs are validated on the calling thread exactly as in {@link #querySendSMS(List, String, String, MessagePriority)},
+     * so invalid arguments throw immediately. If the SDK first has to re-authenticate, that round trip and the
+     * validation run on the executor instead, and invalid arguments complete the future exceptionally. The request is sent through the transport's non-blocking path and the
+     * response is parsed on the configured executor (see {@link #withExecutor(Executor)}). A blocking rate limit
+     * delays the request without blocking the caller; a fail-fast one completes the future with a
+     * {@link RateLimitExceededException}.
+     *
+     * @param numbers  List of recipient phone numbers.
+     * @param message  Message text.
+     * @param senderId Sender ID.
+     * @param priority Message priority.
+     * @return Future completed with the ApiResponse, or with null on error.
+     */
+    public CompletableFuture<ApiResponse> querySendSMSAsync(List<String> numbers, String message, String senderId, MessagePriority priority) {
+        if (!isAuthenticated && !lazyAuthentication) {
+            // re-authentication is a blocking round trip, keep it off the caller's thread
+            return CompletableFuture.supplyAsync(this::sdkNotAuthenticated, executor)
+                    .thenCompose(notAuthenticated -> notAuthenticated ? CompletableFuture.completedFuture(null)
+                            : sendAsync(buildSendBody(numbers, message, senderId, priority)));
+        }
+        return sendAsync(buildSendBody(numbers, message, senderId, priority));
+    }
+
+    private CompletableFuture<ApiResponse> sendAsync(SendSmsBody body) {
+        if (body == null) return CompletableFuture.completedFuture(null);
+        if (body.size() == 0) return CompletableFuture.completedFuture(suppressed());
+        if (body.size() > chunkSize) {
+            return sendChunks(body).thenApply(bulk -> bulk);
+        }
+        if (coalescer != null && body.size() == 1 && coalescer.coalesces(body.getPriority())) {
+            return coalesce(body);
+        }
+        CompletableFuture<ApiResponse> response;
+        try {
+            response = postAsync(body)
+                    .thenApplyAsync(res -> readSendResponse(res, body.size()), executor);
+        } catch (RuntimeException e) {
+            forgetIfFailed(body, null, e);
+            throw e;
+        }
+        return response.whenComplete((apiResponse, error) -> forgetIfFailed(body, apiResponse, error));
+    }
+
+    /**
+     * Splits the request into chunks of {@link #chunkSize} numbers and sends them, keeping at most
+     * {@link #maxParallelChunks} in flight. Chunk failures are recorded rather than propagated.
+     */
+    private CompletableFuture<BulkApiResponse> sendChunks(SendSmsBody body) {
+        List<SendSmsBody> chunks = new ArrayList<>();
+        for (int from = 0; from < body.size(); from += chunkSize) {
+            chunks.add(body.slice(from, Math.min(from + chunkSize, body.size())));
+        }
+        ApiResponse[] responses = new ApiResponse[chunks.size()];
+        Throwable[] errors = new Throwable[chunks.size()];
+        AtomicInteger next = new AtomicInteger();
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(maxParallelChunks, chunks.size())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = sendNextChunk(chunks, next, responses, errors);
+        }
+        return CompletableFuture.allOf(lanes).thenApply(v -> {
+            List<List<String>> chunkNumbers = new ArrayList<>(chunks.size());
+            for (SendSmsBody chunk : chunks) {
+                chunkNumbers.add(chunk.getNumbers());
+            }
+            return BulkApiResponse.combine(chunkNumbers, responses, errors);
+        });
+    }
+
+    private CompletableFuture<Void> sendNextChunk(List<SendSmsBody> chunks, AtomicInteger next, ApiResponse[] responses, Throwable[] errors) {
+        int i = next.getAndIncrement();
+        if (i >= chunks.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SendSmsBody chunk = chunks.get(i);
+        CompletableFuture<ApiResponse> response;
+        try {
+            response = postAsync(chunk)
+                    .thenApplyAsync(res -> readSendResponse(res, chunk.size()), executor);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.handle((apiResponse, error) -> {
+            forgetIfFailed(chunk, apiResponse, error);
+            responses[i] = apiResponse;
+            errors[i] = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            return null;
+        }).thenCompose(v -> sendNextChunk(chunks, next, responses, errors));
+    }
+
+    private byte[] sendAsContentTypeJson(ApiRequest apiRequest) {
+        return post(toJson(apiRequest), null, 0);
+    }
+
+    /**
+     * Posts a send request once the dispatcher grants a slot and the rate limit allows it, waiting in the calling
+     * thread if necessary.
+     */
+    private byte[] post(SendSmsBody body) {
+        PriorityDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            return post(body, body.getSenderId(), body.size());
+        }
+        dispatcher.acquire(body.getPriority()).join();
+        try {
+            return post(body, body.getSenderId(), body.size());
+        } finally {
+            dispatcher.release();
+        }
+    }
+
+    /**
+     * Posts a send request once the dispatcher grants a slot and the rate limit allows it, without blocking.
+     */
+    private CompletableFuture<byte[]> postAsync(SendSmsBody body) {
+        return dispatched(body.getPriority(), () -> postAsync(body, body.getSenderId(), body.size()));
+    }
+
+    /**
+     * Starts a request once the dispatcher, if any, grants a slot for its priority, and gives the slot back when
+     * it completes.
+     */
+    private CompletableFuture<byte[]> dispatched(MessagePriority priority, Supplier<CompletableFuture<byte[]>> request) {
+        PriorityDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            return request.get();
+        }
+        return dispatcher.acquire(priority)
+                .thenCompose(v -> request.get())
+                .whenComplete((res, error) -> dispatcher.release());
+    }
+
+    /**
+     * Posts a request once the rate limit allows it, waiting in the calling thread if necessary.
+     */
+    private byte[] post(JsonBody body, String senderId, long messageCount) {
+        if (rateLimiter != null) {
+            rateLimiter.acquireBlocking(senderId, messageCount);
+        }
+        return transportPost(body);
+    }
+
+    /**
+     * Posts a request once the rate limit allows it, delaying the request rather than the calling thread.
+     */
+    private CompletableFuture<byte[]> postAsync(JsonBody body, String senderId, long messageCount) {
+        long wait;
+        try {
+            wait = rateLimiter == null ? 0 : rateLimiter.acquire(senderId, messageCount);
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (wait == 0) {
+            return transportPostAsync(body);
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor);
+        return CompletableFuture.runAsync(() -> {
+        }, delayed).thenCompose(v -> transportPostAsync(body));
+    }
+
+    /**
+     * Posts through the transport, recording the network phase, in-flight requests and transport errors.
+     */
+    private byte[] transportPost(JsonBody body) {
+        CommsMetrics metrics = this.metrics;
+        metrics.requestStarted();
+        long start = System.nanoTime();
+        try {
+            byte[] response = transport.post(API_URL, compressed(body));
+            recordNetwork(metrics, body, start);
+            return response;
+        } catch (CommsTransportException e) {
+            metrics.transportError(e.getStatusCode());
+            throw e;
+        } finally {
+            metrics.requestFinished();
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #transportPost(JsonBody)}.
+     */
+    private CompletableFuture<byte[]> transportPostAsync(JsonBody body) {
+        CommsMetrics metrics = this.metrics;
+        metrics.requestStarted();
+        long start = System.nanoTime();
+        CompletableFuture<byte[]> response;
+        try {
+            response = transport.postAsync(API_URL, compressed(body));
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        if (metrics == CommsMetrics.NOOP) {
+            return response;
+        }
+        return response.whenComplete((res, error) -> {
+            metrics.requestFinished();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null) {
+                recordNetwork(metrics, body, start);
+            } else if (cause instanceof CommsTransportException) {
+                metrics.transportError(((CommsTransportException) cause).getStatusCode());
+            }
+        });
+    }
+
+    /**
+     * @return The body gzipped if compression is on and it reaches the threshold, otherwise the body itself.
+     */
+    private JsonBody compressed(JsonBody body) {
+        long threshold = compressionThreshold;
+        if (threshold < 0) {
+            return body;
+        }
+        long length = body.contentLength();
+        return length >= 0 && length < threshold ? body : JsonBody.gzip(body, compressionLevel);
+    }
+
+    /**
+     * Send bodies are generated while the transport writes them, so their serialization time is reported
+     * separately and taken out of the network time.
+     */
+    private static void recordNetwork(CommsMetrics metrics, JsonBody body, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (body instanceof SendSmsBody) {
+            long serialize = ((SendSmsBody) body).getSerializeNanos();
+            metrics.recordPhase(CommsMetrics.Phase.SERIALIZE, serialize);
+            elapsed -= serialize;
+        }
+        metrics.recordPhase(CommsMetrics.Phase.NETWORK, elapsed);
+    }
+
+    /**
+     * Parses a response, recording the parse phase and the outcome.
+     *
+     * @param messages Recipients in the request (0 for balance queries).
+     */
+    private ApiResponse parse(byte[] res, int messages) throws IOException {
+        long start = System.nanoTime();
+        ApiResponse response = RESPONSE_READER.readValue(res);
+        CommsMetrics metrics = this.metrics;
+        metrics.recordPhase(CommsMetrics.Phase.PARSE, System.nanoTime() - start);
+        if (response.getStatus() != null) {
+            metrics.response(response.getStatus(), messages, response.getCost() == null ? 0 : response.getCost());
+        }
+        return onResponse(response);
+    }
+
+    private JsonBody toJson(ApiRequest apiRequest) {
+        try {
+            long start = System.nanoTime();
+            JsonBody body = JsonBody.of(REQUEST_WRITER.writeValueAsBytes(apiRequest), !"SendSms".equals(apiRequest.getMethod()));
+            metrics.recordPhase(CommsMetrics.Phase.SERIALIZE, System.nanoTime() - start);
+            return body;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize request: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks if the SDK is authenticated. If not, attempts to re-authenticate, unless authentication is lazy.
+     * Concurrent attempts for the same credentials share one request (see {@link CredentialCache}).
+     *
+     * @return true if not authenticated, false if authenticated.
+     */
+    private boolean sdkNotAuthenticated() {
+        if (!isAuthenticated && !lazyAuthentication) {
+            Log.warn("SDK is not authenticated. Please authenticate before performing actions.");
+            Log.info("Attempting to re-authenticate with provided credentials...");
+            isAuthenticated = Validator.validateCredentials(this);
+            return !isAuthenticated;
+        }
+        return false;
+    }
+
+    /**
+     * Queries the balance and returns the full API response object.
+     * <br>
+     * Served from the cache when one is configured (see {@link #withBalanceCache(Duration, Duration)}).
+     *
+     * @return ApiResponse object with balance and details, or null on error.
+     */
+    public ApiResponse queryBalance() {
+        BalanceCache balanceCache = this.balanceCache;
+        if (balanceCache == null) {
+            return fetchBalance();
+        }
+        try {
+            return balanceCache.get().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to get balance: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private ApiResponse fetchBalance() {
+        if (sdkNotAuthenticated()) {
+            return null;
+        }
+        try {
+            return parse(sendAsContentTypeJson(balanceRequest()), 0);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get balance: " + e.getMessage(), e);
+        }
+    }
+
+    private ApiRequest balanceRequest() {
+        ApiRequest apiRequest = new ApiRequest();
+        apiRequest.setMethod("Balance");
+        apiRequest.setUserdata(new UserData(userName, apiKey));
+        return apiRequest;
+    }
+
+    private ApiResponse readBalanceResponse(byte[] body) {
+        try {
+            return parse(body, 0);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get balance: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Queries the balance without blocking the caller.
+     * <br>
+     * Served from the cache when one is configured (see {@link #withBalanceCache(Duration, Duration)}).
+     *
+     * @return Future completed with the ApiResponse, or with null if the SDK is not authenticated.
+     */
+    public CompletableFuture<ApiResponse> queryBalanceAsync() {
+        BalanceCache balanceCache = this.balanceCache;
+        return balanceCache == null ? fetchBalanceAsync() : balanceCache.get();
+    }
+
+    private CompletableFuture<ApiResponse> fetchBalanceAsync() {
+        if (!isAuthenticated && !lazyAuthentication) {
+            // re-authentication is a blocking round trip, keep it off the caller's thread
+            return CompletableFuture.supplyAsync(this::fetchBalance, executor);
+        }
+        return postAsync(toJson(balanceRequest()), null, 0)
+                .thenApplyAsync(this::readBalanceResponse, executor);
+    }
+
+    /**
+     * An OK answer proves the credentials, which completes lazy authentication.
+     */
+    private ApiResponse onResponse(ApiResponse response) {
+        if (!isAuthenticated && response != null && response.getStatus() == ApiResponseCode.OK) {
+            isAuthenticated = true;
+            CredentialCache.markValidated(API_URL, userName, apiKey);
+        }
+        return response;
+    }
+
+    /**
+     * Gets your current SMS account balance.
+     *
+     * @return Balance as a double.
+     */
+    public double getBalance() {
+        return queryBalance().getBalance();
+    }
+
+    /**
+     * Returns a string representation of the SDK instance.
+     *
+     * @return String representation.
+     */
+    @Override
+    public String toString() {
+        return "SDK(" + userName + " => " + apiKey + ")";
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, "comms-sdk-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
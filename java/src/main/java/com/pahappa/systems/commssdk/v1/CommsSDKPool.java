@@ -0,0 +1,173 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.dispatch.PriorityDispatcher;
+import com.pahappa.systems.commssdk.v1.metrics.CommsMetrics;
+import com.pahappa.systems.commssdk.v1.transport.CommsTransport;
+import com.pahappa.systems.commssdk.v1.transport.JdkHttpTransport;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Registry of {@link CommsSDK} handles for many accounts (tenants).
+ * <p>
+ * Every handle sends through the same {@link CommsTransport} (one connection pool), runs its async work on the
+ * same executor and uses the shared {@link CommsSDK#RESPONSE_READER} and {@link CommsSDK#REQUEST_WRITER}, so a
+ * handle only holds its credentials and settings. Each tenant gets its own {@link PriorityDispatcher}, which caps
+ * its requests in flight so that one busy tenant cannot take every connection.
+ * </p>
+ * <pre>
+ * CommsSDKPool pool = new CommsSDKPool().withTenantConcurrency(4);
+ * pool.get("tenant_user", "tenant_api_key").sendSMS(number, "Hello");
+ * </pre>
+ */
+public class CommsSDKPool {
+    private final ConcurrentMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+    @Getter
+    private CommsTransport transport = JdkHttpTransport.shared();
+    private Executor executor;
+    @Getter
+    private int tenantConcurrency = 4;
+    private boolean lazyAuthentication = true;
+    @Getter
+    private CommsMetrics metrics = CommsMetrics.NOOP;
+
+    /**
+     * @param transport Transport shared by every handle (default {@link JdkHttpTransport#shared()}).
+     * @return This pool.
+     */
+    public CommsSDKPool withTransport(@NonNull CommsTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * @param executor Executor shared by the async API of every handle (default: the SDK's daemon thread pool).
+     * @return This pool.
+     */
+    public CommsSDKPool withExecutor(@NonNull Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param metrics Metrics shared by every handle, e.g. a {@link com.pahappa.systems.commssdk.v1.metrics.SimpleCommsMetrics}.
+     * @return This pool.
+     */
+    public CommsSDKPool withMetrics(@NonNull CommsMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * @param maxInFlight Maximum send requests in flight per tenant (default 4).
+     * @return This pool.
+     */
+    public CommsSDKPool withTenantConcurrency(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Tenant concurrency must be positive");
+        }
+        this.tenantConcurrency = maxInFlight;
+        return this;
+    }
+
+    /**
+     * @param lazyAuthentication Whether new handles skip the validation request (default true); see
+     *                           {@link CommsSDK#authenticateLazily(String, String)}.
+     * @return This pool.
+     */
+    public CommsSDKPool withLazyAuthentication(boolean lazyAuthentication) {
+        this.lazyAuthentication = lazyAuthentication;
+        return this;
+    }
+
+    /**
+     * Returns the handle for an account, creating it on first use. Settings changed on the pool afterwards only
+     * apply to handles created later.
+     * <br>
+     * A handle is created outside of any map lock: concurrent callers for the same account wait for the one
+     * creating it (including its validation request, unless authentication is lazy), and other accounts are not
+     * held up at all.
+     *
+     * @param userName Account username.
+     * @param apiKey   Account API key. A different key than before replaces the account's handle.
+     * @return The account's handle.
+     */
+    public CommsSDK get(@NonNull String userName, @NonNull String apiKey) {
+        while (true) {
+            Tenant tenant = tenants.get(userName);
+            if (tenant != null && tenant.apiKey.equals(apiKey)) {
+                try {
+                    return tenant.sdk.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            Tenant created = new Tenant(apiKey);
+            boolean installed = tenant == null
+                    ? tenants.putIfAbsent(userName, created) == null
+                    : tenants.replace(userName, tenant, created);
+            if (!installed) {
+                continue; // another caller installed or replaced it first
+            }
+            CommsSDK sdk;
+            try {
+                sdk = create(userName, apiKey);
+            } catch (RuntimeException e) {
+                tenants.remove(userName, created);
+                created.sdk.completeExceptionally(e);
+                throw e;
+            }
+            created.sdk.complete(sdk);
+            return sdk;
+        }
+    }
+
+    private CommsSDK create(String userName, String apiKey) {
+        CommsSDK sdk = lazyAuthentication
+                ? CommsSDK.authenticateLazily(userName, apiKey, transport)
+                : CommsSDK.authenticate(userName, apiKey, transport);
+        if (executor != null) {
+            sdk.withExecutor(executor);
+        }
+        return sdk.withMetrics(metrics).withPriorityDispatch(new PriorityDispatcher(tenantConcurrency));
+    }
+
+    /**
+     * Drops the handle for an account, e.g. when the tenant is offboarded.
+     *
+     * @param userName Account username.
+     * @return The removed handle, or null if there was none.
+     */
+    public CommsSDK remove(String userName) {
+        Tenant tenant = tenants.remove(userName);
+        return tenant == null ? null : tenant.sdk.getNow(null);
+    }
+
+    /**
+     * @return Number of accounts with a handle.
+     */
+    public int size() {
+        return tenants.size();
+    }
+
+    /**
+     * A tenant's handle, completed once it has been created.
+     */
+    private static final class Tenant {
+        private final String apiKey;
+        private final CompletableFuture<CommsSDK> sdk = new CompletableFuture<>();
+
+        Tenant(String apiKey) {
+            this.apiKey = apiKey;
+        }
+    }
+}
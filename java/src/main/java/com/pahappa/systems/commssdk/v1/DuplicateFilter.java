@@ -0,0 +1,212 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.utils.LongSet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the 64-bit fingerprints of recently sent messages (number, message and sender ID) for a time window, so
+ * that sending the same message to the same number again within the window can be suppressed.
+ * <p>
+ * The window is split into {@link #BUCKETS} - 1 time buckets. Each bucket is a fixed-size open-addressing table of
+ * fingerprints that threads add to and look up with CAS only, never a lock. Once a bucket is {@code BUCKETS} periods
+ * old its table is replaced by a new one for the current period, so a fingerprint is remembered for at least the
+ * window and at most a third longer, and memory never exceeds {@code BUCKETS} tables. A bucket that is full stops
+ * remembering until the next period: messages are then sent rather than risk dropping one that is not a duplicate.
+ * </p>
+ */
+final class DuplicateFilter {
+    /**
+     * Tables kept, the current one included.
+     */
+    static final int BUCKETS = 4;
+    private static final long EMPTY = 0;
+    private static final long REMOVED = 1;
+
+    private final long bucketNanos;
+    private final int capacity;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+    private final AtomicLong overflows = new AtomicLong();
+
+    /**
+     * @param windowNanos How long a message is remembered.
+     * @param capacity    Messages each bucket can remember.
+     * @param clock       Time source in nanoseconds, e.g. {@code System::nanoTime}.
+     */
+    DuplicateFilter(long windowNanos, int capacity, LongSupplier clock) {
+        this.bucketNanos = Math.max(1, (windowNanos + BUCKETS - 2) / (BUCKETS - 1));
+        this.capacity = capacity;
+        this.clock = clock;
+        LongSet.tableSize(capacity); // fails fast if too large
+    }
+
+    /**
+     * Hashes the parts of a message shared by all its numbers, to be combined with each number by
+     * {@link #fingerprint(long, long)}.
+     */
+    static long hash(String message, String senderId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = message.length(); i < n; i++) {
+            h = (h ^ message.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ 0x1F) * 0x100000001b3L; // separator, so that "ab" + "c" differs from "a" + "bc"
+        if (senderId != null) {
+            for (int i = 0, n = senderId.length(); i < n; i++) {
+                h = (h ^ senderId.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        return mix(h);
+    }
+
+    /**
+     * @param number      Packed number, see {@link com.pahappa.systems.commssdk.v1.utils.PhoneNumbers#key(long, int)}.
+     * @param messageHash Hash of the message and sender ID from {@link #hash(String, String)}.
+     * @return Fingerprint of the message to that number, never 0 or 1.
+     */
+    static long fingerprint(long number, long messageHash) {
+        long fingerprint = mix(messageHash ^ mix(number));
+        return fingerprint == EMPTY || fingerprint == REMOVED ? fingerprint + 2 : fingerprint;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Records a message unless it was already recorded within the window.
+     *
+     * @param fingerprint Fingerprint from {@link #fingerprint(long, long)}.
+     * @return true if the message should be sent, false if it is a duplicate.
+     */
+    boolean add(long fingerprint) {
+        long period = Math.floorDiv(clock.getAsLong(), bucketNanos);
+        Bucket current = null;
+        for (int i = 0; i < BUCKETS; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || period - bucket.period >= BUCKETS) {
+                continue;
+            }
+            if (bucket.period == period) {
+                current = bucket;
+            } else if (bucket.contains(fingerprint)) {
+                return false;
+            }
+        }
+        if (current == null) {
+            current = bucket(period);
+        }
+        int added = current.add(fingerprint, capacity);
+        if (added < 0) {
+            overflows.incrementAndGet();
+        }
+        return added != 0;
+    }
+
+    /**
+     * Forgets a message, e.g. because sending it failed and a retry must go through.
+     *
+     * @param fingerprint Fingerprint from {@link #fingerprint(long, long)}.
+     */
+    void remove(long fingerprint) {
+        for (int i = 0; i < BUCKETS; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null) {
+                bucket.remove(fingerprint);
+            }
+        }
+    }
+
+    /**
+     * @return Messages that were sent without being remembered because their bucket was full.
+     */
+    long getOverflows() {
+        return overflows.get();
+    }
+
+    /**
+     * Returns the bucket of the current period, replacing the expired one in its slot if needed.
+     */
+    private Bucket bucket(long period) {
+        int slot = (int) Math.floorMod(period, (long) BUCKETS);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.period >= period) {
+                return bucket; // another thread created it, or the clock moved on meanwhile
+            }
+            Bucket created = new Bucket(period, LongSet.tableSize(capacity));
+            if (buckets.compareAndSet(slot, bucket, created)) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Fingerprints of one period, in a table that only grows until the period expires. Removed fingerprints leave a
+     * marker, so that lookups probe past them; their slot is not reused.
+     */
+    private static final class Bucket {
+        private final long period;
+        private final AtomicLongArray table;
+        private final int mask;
+        private final AtomicInteger size = new AtomicInteger();
+
+        Bucket(long period, int tableSize) {
+            this.period = period;
+            this.table = new AtomicLongArray(tableSize);
+            this.mask = tableSize - 1;
+        }
+
+        boolean contains(long fingerprint) {
+            int i = LongSet.hash(fingerprint) & mask;
+            for (long slot; (slot = table.get(i)) != EMPTY; i = (i + 1) & mask) {
+                if (slot == fingerprint) return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return 1 if added, 0 if already present, -1 if the bucket is full.
+         */
+        int add(long fingerprint, int capacity) {
+            int i = LongSet.hash(fingerprint) & mask;
+            while (true) {
+                long slot = table.get(i);
+                if (slot == fingerprint) {
+                    return 0;
+                }
+                if (slot != EMPTY) {
+                    i = (i + 1) & mask;
+                    continue;
+                }
+                if (size.get() >= capacity) {
+                    return -1;
+                }
+                if (table.compareAndSet(i, EMPTY, fingerprint)) {
+                    size.incrementAndGet();
+                    return 1;
+                }
+                // lost the slot to another thread, look at what it wrote
+            }
+        }
+
+        void remove(long fingerprint) {
+            int i = LongSet.hash(fingerprint) & mask;
+            for (long slot; (slot = table.get(i)) != EMPTY; i = (i + 1) & mask) {
+                if (slot == fingerprint) {
+                    table.compareAndSet(i, fingerprint, REMOVED);
+                    return;
+                }
+            }
+        }
+    }
+}
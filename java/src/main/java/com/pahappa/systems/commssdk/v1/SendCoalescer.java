@@ -0,0 +1,190 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.MessageModel;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.utils.MessageEncoding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Gathers single-recipient sends into batches sent as one {@code SendSms} request.
+ * <p>
+ * Messages are batched per sender ID and priority, so that a batch is rate limited under its sender ID and
+ * dispatched at the priority of every message in it. A batch is sent when it reaches the maximum size, or when the
+ * maximum delay has passed since its first message, whichever comes first. {@link MessagePriority#HIGHEST} batches
+ * can have a shorter delay of their own, or not be coalesced at all. Every caller of a batch gets the
+ * batch's status, message and follow-up code; the batch cost is shared out by the segments of each caller's message.
+ * </p>
+ */
+final class SendCoalescer {
+    private final Function<List<MessageModel>, CompletableFuture<ApiResponse>> sender;
+    private final long maxDelayNanos;
+    private final long highestMaxDelayNanos;
+    private final int maxBatchSize;
+    private final Executor executor;
+    private final Map<Key, Batch> batches = new HashMap<>();
+
+    SendCoalescer(Function<List<MessageModel>, CompletableFuture<ApiResponse>> sender, long maxDelayNanos,
+                  int maxBatchSize, Executor executor) {
+        this(sender, maxDelayNanos, maxDelayNanos, maxBatchSize, executor);
+    }
+
+    /**
+     * @param highestMaxDelayNanos Maximum delay of {@link MessagePriority#HIGHEST} batches, negative to send those
+     *                             messages on their own.
+     */
+    SendCoalescer(Function<List<MessageModel>, CompletableFuture<ApiResponse>> sender, long maxDelayNanos,
+                  long highestMaxDelayNanos, int maxBatchSize, Executor executor) {
+        this.sender = sender;
+        this.maxDelayNanos = maxDelayNanos;
+        this.highestMaxDelayNanos = highestMaxDelayNanos;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * @return Whether messages of this priority are coalesced, rather than sent on their own.
+     */
+    boolean coalesces(MessagePriority priority) {
+        return priority != MessagePriority.HIGHEST || highestMaxDelayNanos >= 0;
+    }
+
+    /**
+     * Adds a message to the current batch.
+     *
+     * @return Future completed with this message's share of the batch response.
+     */
+    CompletableFuture<ApiResponse> submit(MessageModel message) {
+        CompletableFuture<ApiResponse> result = new CompletableFuture<>();
+        Key key = new Key(message.getSenderId(), message.getPriority());
+        Batch full = null;
+        Batch started = null;
+        synchronized (this) {
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                batch = new Batch(key, maxBatchSize);
+                batches.put(key, batch);
+                started = batch;
+            }
+            batch.messages.add(message);
+            batch.results.add(result);
+            if (batch.messages.size() >= maxBatchSize) {
+                full = batch;
+                batches.remove(key);
+            }
+        }
+        if (full != null) {
+            send(full);
+        } else if (started != null) {
+            Batch timed = started;
+            long delay = key.priority == MessagePriority.HIGHEST ? highestMaxDelayNanos : maxDelayNanos;
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor).execute(() -> flush(timed));
+        }
+        return result;
+    }
+
+    private void flush(Batch timed) {
+        synchronized (this) {
+            if (!batches.remove(timed.key, timed)) {
+                return; // already sent because it filled up
+            }
+        }
+        send(timed);
+    }
+
+    private void send(Batch batch) {
+        CompletableFuture<ApiResponse> response;
+        try {
+            response = sender.apply(batch.messages);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((apiResponse, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                for (CompletableFuture<ApiResponse> result : batch.results) {
+                    result.completeExceptionally(cause);
+                }
+                return;
+            }
+            if (apiResponse == null) {
+                for (CompletableFuture<ApiResponse> result : batch.results) {
+                    result.complete(null);
+                }
+                return;
+            }
+            int[] segments = new int[batch.messages.size()];
+            long totalSegments = 0;
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = Math.max(1, MessageEncoding.segments(batch.messages.get(i).getMessage()));
+                totalSegments += segments[i];
+            }
+            Integer cost = apiResponse.getCost();
+            long remaining = cost == null ? 0 : cost;
+            for (int i = 0; i < segments.length; i++) {
+                Integer share = null;
+                if (cost != null) {
+                    long part = i == segments.length - 1 ? remaining : cost * (long) segments[i] / totalSegments;
+                    remaining -= part;
+                    share = (int) part;
+                }
+                batch.results.get(i).complete(share(apiResponse, share));
+            }
+        });
+    }
+
+    private static ApiResponse share(ApiResponse batch, Integer cost) {
+        ApiResponse response = new ApiResponse();
+        response.setStatus(batch.getStatus());
+        response.setMessage(batch.getMessage());
+        response.setCost(cost);
+        response.setCurrency(batch.getCurrency());
+        response.setMessageFollowUpCode(batch.getMessageFollowUpCode());
+        response.setBalance(batch.getBalance());
+        return response;
+    }
+
+    private static final class Batch {
+        private final Key key;
+        private final List<MessageModel> messages;
+        private final List<CompletableFuture<ApiResponse>> results;
+
+        Batch(Key key, int capacity) {
+            this.key = key;
+            this.messages = new ArrayList<>(capacity);
+            this.results = new ArrayList<>(capacity);
+        }
+    }
+
+    private static final class Key {
+        private final String senderId;
+        private final MessagePriority priority;
+
+        Key(String senderId, MessagePriority priority) {
+            this.senderId = senderId;
+            this.priority = priority;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Objects.equals(senderId, other.senderId) && priority == other.priority;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(senderId) + Objects.hashCode(priority);
+        }
+    }
+}
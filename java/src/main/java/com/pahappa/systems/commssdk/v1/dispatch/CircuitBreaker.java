@@ -0,0 +1,96 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling an unhealthy endpoint so that callers fail immediately instead of each waiting for a timeout.
+ * <p>
+ * The breaker opens after a number of consecutive failures. While open every request is rejected with a
+ * {@link CircuitBreakerOpenException}. After the open duration one trial request is let through (half open): if it
+ * succeeds the breaker closes, otherwise it opens again. State changes are made with CAS, without locking.
+ * </p>
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAt;
+
+    /**
+     * @param failureThreshold Consecutive failures that open the breaker.
+     * @param openDuration     How long the breaker stays open before a trial request.
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier clock) {
+        if (failureThreshold < 1 || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * @return Current state.
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Asks for permission to make a request.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open, or half open with a trial request in flight.
+     */
+    public void acquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return;
+        }
+        long remaining = openedAt + openNanos - clock.getAsLong();
+        if (current == State.OPEN && remaining <= 0 && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return; // this caller makes the trial request
+        }
+        throw new CircuitBreakerOpenException(Duration.ofNanos(Math.max(0, remaining)));
+    }
+
+    /**
+     * Records a request that reached a healthy endpoint.
+     */
+    public void onSuccess() {
+        failures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    /**
+     * Records a request that failed because of the endpoint.
+     */
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        } else if (failures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    private void open(State from) {
+        openedAt = clock.getAsLong();
+        if (state.compareAndSet(from, State.OPEN)) {
+            failures.set(0);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import com.pahappa.systems.commssdk.v1.transport.CommsTransportException;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of making a request while a {@link CircuitBreaker} is open. Nothing was sent.
+ */
+@Getter
+public class CircuitBreakerOpenException extends CommsTransportException {
+    /**
+     * How long until the breaker lets a trial request through.
+     */
+    private final Duration retryAfter;
+
+    public CircuitBreakerOpenException(Duration retryAfter) {
+        super("Circuit breaker is open, endpoint considered unhealthy for another " + retryAfter.toMillis() + "ms", null);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,209 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of requests in flight and hands out free slots by {@link MessagePriority}.
+ * <p>
+ * Each priority has its own lane. {@code HIGHEST} requests are always served first and can use slots that are
+ * reserved for them, so an OTP never waits behind a campaign that has taken every other slot. The other lanes share
+ * the remaining slots by smooth weighted round robin (8:4:2:1 for {@code HIGH} to {@code LOWEST} by default), and a
+ * request that has waited longer than the maximum wait is served next whatever its priority, so no lane starves.
+ * </p>
+ * Slots are granted through futures, so asynchronous callers never block; synchronous callers join the future.
+ * Every granted slot must be given back with {@link #release()}.
+ */
+public class PriorityDispatcher {
+    private static final int LANES = MessagePriority.values().length;
+    private static final int HIGHEST = MessagePriority.HIGHEST.ordinal();
+
+    @Getter
+    private final int maxInFlight;
+    private int reservedForHighest;
+    private final int[] weights = {0, 8, 4, 2, 1};
+    private long maxWaitNanos = Duration.ofSeconds(5).toNanos();
+    private final LongSupplier clock;
+
+    private final List<ArrayDeque<Waiter>> lanes = new ArrayList<>(LANES);
+    private final int[] credit = new int[LANES];
+    private int inFlight;
+
+    /**
+     * @param maxInFlight Maximum requests in flight at the same time. One slot is reserved for {@code HIGHEST}
+     *                    when there is more than one.
+     */
+    public PriorityDispatcher(int maxInFlight) {
+        this(maxInFlight, System::nanoTime);
+    }
+
+    PriorityDispatcher(int maxInFlight, LongSupplier clock) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in flight must be positive");
+        }
+        this.maxInFlight = maxInFlight;
+        this.reservedForHighest = maxInFlight > 1 ? 1 : 0;
+        this.clock = clock;
+        for (int i = 0; i < LANES; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @param slots Slots only {@code HIGHEST} requests may use (default 1, or 0 if there is only one slot).
+     * @return This dispatcher.
+     */
+    public synchronized PriorityDispatcher withReservedForHighest(int slots) {
+        if (slots < 0 || slots >= maxInFlight) {
+            throw new IllegalArgumentException("Reserved slots must leave at least one shared slot");
+        }
+        this.reservedForHighest = slots;
+        return this;
+    }
+
+    /**
+     * @param high   Weight of {@code HIGH} (default 8).
+     * @param medium Weight of {@code MEDIUM} (default 4).
+     * @param low    Weight of {@code LOW} (default 2).
+     * @param lowest Weight of {@code LOWEST} (default 1).
+     * @return This dispatcher.
+     */
+    public synchronized PriorityDispatcher withWeights(int high, int medium, int low, int lowest) {
+        if (high < 1 || medium < 1 || low < 1 || lowest < 1) {
+            throw new IllegalArgumentException("Weights must be positive");
+        }
+        weights[MessagePriority.HIGH.ordinal()] = high;
+        weights[MessagePriority.MEDIUM.ordinal()] = medium;
+        weights[MessagePriority.LOW.ordinal()] = low;
+        weights[MessagePriority.LOWEST.ordinal()] = lowest;
+        return this;
+    }
+
+    /**
+     * @param maxWait Wait after which a request is served ahead of higher priorities (default 5s).
+     * @return This dispatcher.
+     */
+    public synchronized PriorityDispatcher withMaxWait(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+        return this;
+    }
+
+    /**
+     * Asks for a slot.
+     *
+     * @param priority Priority of the request; null is treated as {@code HIGHEST}, like in the API.
+     * @return Future completed once the slot is granted, possibly already complete.
+     */
+    public CompletableFuture<Void> acquire(MessagePriority priority) {
+        Waiter waiter = new Waiter(clock.getAsLong());
+        synchronized (this) {
+            lanes.get(priority == null ? HIGHEST : priority.ordinal()).addLast(waiter);
+        }
+        grantFreeSlots();
+        return waiter.granted;
+    }
+
+    /**
+     * Gives back a slot granted by {@link #acquire(MessagePriority)}.
+     */
+    public void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        grantFreeSlots();
+    }
+
+    /**
+     * @param priority Lane to inspect.
+     * @return Requests waiting in that lane.
+     */
+    public synchronized int getQueued(MessagePriority priority) {
+        return lanes.get(priority.ordinal()).size();
+    }
+
+    /**
+     * @return Slots currently granted.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Completes the futures of the waiters that get a slot, outside the lock because completing runs their
+     * continuations.
+     */
+    private void grantFreeSlots() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                next = next();
+                if (next == null) {
+                    return;
+                }
+                inFlight++;
+            }
+            next.granted.complete(null);
+        }
+    }
+
+    private Waiter next() {
+        if (inFlight >= maxInFlight) {
+            return null;
+        }
+        if (!lanes.get(HIGHEST).isEmpty()) {
+            return lanes.get(HIGHEST).pollFirst();
+        }
+        if (inFlight >= maxInFlight - reservedForHighest) {
+            return null;
+        }
+        // starvation protection: the request that has waited longest beyond the limit goes first
+        long now = clock.getAsLong();
+        int starved = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int lane = HIGHEST + 1; lane < LANES; lane++) {
+            Waiter head = lanes.get(lane).peekFirst();
+            if (head != null && now - head.enqueuedAt > maxWaitNanos && head.enqueuedAt < oldest) {
+                starved = lane;
+                oldest = head.enqueuedAt;
+            }
+        }
+        if (starved >= 0) {
+            return lanes.get(starved).pollFirst();
+        }
+        // smooth weighted round robin over the non-empty lanes
+        int best = -1;
+        int total = 0;
+        for (int lane = HIGHEST + 1; lane < LANES; lane++) {
+            if (lanes.get(lane).isEmpty()) {
+                credit[lane] = 0;
+                continue;
+            }
+            credit[lane] += weights[lane];
+            total += weights[lane];
+            if (best < 0 || credit[lane] > credit[best]) {
+                best = lane;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        credit[best] -= total;
+        return lanes.get(best).pollFirst();
+    }
+
+    private static final class Waiter {
+        private final long enqueuedAt;
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        Waiter(long enqueuedAt) {
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
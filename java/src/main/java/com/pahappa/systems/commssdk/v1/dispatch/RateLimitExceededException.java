@@ -0,0 +1,22 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown by a {@link RateLimiter} in {@link RateLimiter.Mode#FAIL_FAST} mode when a request would exceed the
+ * configured rate. Nothing was sent.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    /**
+     * How long the caller should wait before trying again.
+     */
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
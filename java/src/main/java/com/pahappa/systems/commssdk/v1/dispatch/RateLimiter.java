@@ -0,0 +1,142 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Client-side rate limit for one EgoSMS account.
+ * <p>
+ * Limits are optional and independent: requests per second for the account, messages per second for the account,
+ * and messages per second for each sender ID. Every limit is a lock-free {@link TokenBucket} shared by all threads
+ * using the SDK instance.
+ * </p>
+ * <p>
+ * In {@link Mode#BLOCK} mode synchronous sends wait for tokens and asynchronous sends return a future that is
+ * dispatched once tokens are available, without blocking the caller. In {@link Mode#FAIL_FAST} mode both throw (or
+ * complete with) a {@link RateLimitExceededException} instead.
+ * </p>
+ */
+public class RateLimiter {
+    public enum Mode {
+        BLOCK,
+        FAIL_FAST
+    }
+
+    @Getter
+    private final Mode mode;
+    private TokenBucket requests;
+    private TokenBucket messages;
+    private double senderRate;
+    private long senderBurst;
+    private final ConcurrentMap<String, TokenBucket> senders = new ConcurrentHashMap<>();
+
+    public RateLimiter(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Limits the number of API requests (sends and balance queries) per second.
+     *
+     * @param perSecond Sustained rate.
+     * @param burst     Requests allowed at once after an idle period.
+     * @return This limiter.
+     */
+    public RateLimiter withRequestsPerSecond(double perSecond, long burst) {
+        this.requests = new TokenBucket(perSecond, burst);
+        return this;
+    }
+
+    /**
+     * Limits the number of recipients per second across the account.
+     *
+     * @param perSecond Sustained rate.
+     * @param burst     Messages allowed at once after an idle period.
+     * @return This limiter.
+     */
+    public RateLimiter withMessagesPerSecond(double perSecond, long burst) {
+        this.messages = new TokenBucket(perSecond, burst);
+        return this;
+    }
+
+    /**
+     * Limits the number of recipients per second for each sender ID separately.
+     *
+     * @param perSecond Sustained rate.
+     * @param burst     Messages allowed at once after an idle period.
+     * @return This limiter.
+     */
+    public RateLimiter withMessagesPerSecondPerSender(double perSecond, long burst) {
+        new TokenBucket(perSecond, burst); // validate eagerly
+        this.senderRate = perSecond;
+        this.senderBurst = burst;
+        this.senders.clear();
+        return this;
+    }
+
+    /**
+     * Takes tokens for one request.
+     *
+     * @param senderId     Sender ID of the request, or null for requests without messages.
+     * @param messageCount Recipients in the request.
+     * @return Nanoseconds to wait before sending.
+     * @throws RateLimitExceededException in fail-fast mode when the tokens are not available now.
+     */
+    public long acquire(String senderId, long messageCount) {
+        TokenBucket sender = messageCount > 0 ? senderBucket(senderId) : null;
+        TokenBucket messages = messageCount > 0 ? this.messages : null;
+        if (mode == Mode.BLOCK) {
+            long wait = 0;
+            if (requests != null) wait = Math.max(wait, requests.reserve(1));
+            if (messages != null) wait = Math.max(wait, messages.reserve(messageCount));
+            if (sender != null) wait = Math.max(wait, sender.reserve(messageCount));
+            return wait;
+        }
+        long wait = requests == null ? 0 : requests.tryAcquire(1);
+        if (wait > 0) {
+            throw exceeded("requests", wait);
+        }
+        wait = messages == null ? 0 : messages.tryAcquire(messageCount);
+        if (wait > 0) {
+            if (requests != null) requests.release(1);
+            throw exceeded("messages", wait);
+        }
+        wait = sender == null ? 0 : sender.tryAcquire(messageCount);
+        if (wait > 0) {
+            if (requests != null) requests.release(1);
+            if (messages != null) messages.release(messageCount);
+            throw exceeded("messages for sender ID " + senderId, wait);
+        }
+        return 0;
+    }
+
+    /**
+     * Like {@link #acquire(String, long)}, but waits for the tokens in the calling thread.
+     *
+     * @param senderId     Sender ID of the request, or null for requests without messages.
+     * @param messageCount Recipients in the request.
+     */
+    public void acquireBlocking(String senderId, long messageCount) {
+        long wait = acquire(senderId, messageCount);
+        long deadline = System.nanoTime() + wait;
+        while (wait > 0) {
+            LockSupport.parkNanos(this, wait);
+            wait = deadline - System.nanoTime();
+        }
+    }
+
+    private TokenBucket senderBucket(String senderId) {
+        if (senderRate <= 0 || senderId == null) {
+            return null;
+        }
+        return senders.computeIfAbsent(senderId, id -> new TokenBucket(senderRate, senderBurst));
+    }
+
+    private static RateLimitExceededException exceeded(String what, long waitNanos) {
+        Duration retryAfter = Duration.ofNanos(waitNanos);
+        return new RateLimitExceededException("Rate limit exceeded for " + what + ", retry after " + retryAfter.toMillis() + "ms", retryAfter);
+    }
+}
@@ -0,0 +1,116 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import com.pahappa.systems.commssdk.v1.transport.CommsTransport;
+import com.pahappa.systems.commssdk.v1.transport.JsonBody;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transport decorator that retries failed requests and guards the endpoint with a circuit breaker.
+ * <p>
+ * Either part is optional. Retries follow the {@link RetryPolicy}, which does not repeat a {@code SendSms} request
+ * the server may already have received; failures that the policy considers retryable
+ * (transport errors and 5xx) also count against the {@link CircuitBreaker}, while any other outcome shows that the
+ * endpoint is reachable. Asynchronous retries are scheduled with a delayed executor and never block a thread.
+ * </p>
+ */
+@Getter
+public class ResilientTransport implements CommsTransport {
+    private final CommsTransport delegate;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * @param delegate       Transport that makes the requests.
+     * @param retryPolicy    Retry policy, or null for no retries.
+     * @param circuitBreaker Circuit breaker, or null for none.
+     */
+    public ResilientTransport(@NonNull CommsTransport delegate, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public byte[] post(String url, JsonBody body) {
+        if (retryPolicy != null) retryPolicy.onRequest();
+        for (int attempt = 1; ; attempt++) {
+            if (circuitBreaker != null) circuitBreaker.acquirePermission();
+            try {
+                byte[] response = delegate.post(url, body);
+                onOutcome(null);
+                return response;
+            } catch (RuntimeException e) {
+                onOutcome(e);
+                long delay = retryDelay(e, body, attempt);
+                if (delay < 0) {
+                    throw e;
+                }
+                long deadline = System.nanoTime() + delay;
+                while (delay > 0) {
+                    LockSupport.parkNanos(this, delay);
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    delay = deadline - System.nanoTime();
+                }
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<byte[]> postAsync(String url, JsonBody body) {
+        if (retryPolicy != null) retryPolicy.onRequest();
+        return attemptAsync(url, body, 1);
+    }
+
+    private CompletableFuture<byte[]> attemptAsync(String url, JsonBody body, int attempt) {
+        CompletableFuture<byte[]> response;
+        try {
+            if (circuitBreaker != null) circuitBreaker.acquirePermission();
+            response = delegate.postAsync(url, body);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.handle((result, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            onOutcome(cause);
+            if (cause == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            long delay = retryDelay(cause, body, attempt);
+            if (delay < 0) {
+                return CompletableFuture.<byte[]>failedFuture(cause);
+            }
+            return CompletableFuture.runAsync(() -> {
+            }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)).thenCompose(v -> attemptAsync(url, body, attempt + 1));
+        }).thenCompose(future -> future);
+    }
+
+    private void onOutcome(Throwable error) {
+        if (circuitBreaker == null || error instanceof CircuitBreakerOpenException) {
+            return;
+        }
+        if (error != null && RetryPolicy.isTransientFailure(error)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * @return Nanoseconds to wait before the next attempt, or -1 if the error must be propagated.
+     */
+    private long retryDelay(Throwable error, JsonBody body, int attempt) {
+        if (retryPolicy == null || attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(error, body)
+                || !retryPolicy.tryAcquireRetry()) {
+            return -1;
+        }
+        return retryPolicy.backoffNanos(attempt);
+    }
+}
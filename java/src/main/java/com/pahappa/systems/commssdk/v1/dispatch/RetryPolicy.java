@@ -0,0 +1,203 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import com.pahappa.systems.commssdk.v1.transport.CommsTransportException;
+import com.pahappa.systems.commssdk.v1.transport.JsonBody;
+import lombok.Getter;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * When and how long to wait before retrying a failed request.
+ * <p>
+ * Only transport failures (no response) and 5xx answers are retried. A {@code Failed} API response is a normal
+ * 2xx answer and is never retried, and neither are other 4xx errors. Requests that are not idempotent
+ * ({@code SendSms}, see {@link JsonBody#isIdempotent()}) are only retried when they failed before they were sent,
+ * unless {@link #withAmbiguousSendRetries(boolean)} allows more. The backoff grows exponentially with random
+ * jitter so that clients do not retry in lockstep, and a retry budget caps retries to a fraction of the requests
+ * so that an outage is not multiplied into a retry storm.
+ * </p>
+ */
+public class RetryPolicy {
+    /**
+     * Budget units per retry; deposits are fractions of this.
+     */
+    private static final long RETRY_COST = 1000;
+
+    @Getter
+    private int maxAttempts = 3;
+    private long initialBackoffNanos = Duration.ofMillis(200).toNanos();
+    private long maxBackoffNanos = Duration.ofSeconds(5).toNanos();
+    private double multiplier = 2;
+    private double jitter = 0.5;
+    private long depositPerRequest = 200; // 20% of requests may be retries
+    private long maxBalance = 100 * RETRY_COST;
+    private TokenBucket minRetries = new TokenBucket(10, 10);
+    private final AtomicLong balance = new AtomicLong();
+    private boolean ambiguousSendRetries = false;
+
+    /**
+     * @param maxAttempts Total attempts per request, including the first one (default 3).
+     * @return This policy.
+     */
+    public RetryPolicy withMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * @param initial    Delay before the first retry (default 200ms).
+     * @param max        Upper bound for the delay (default 5s).
+     * @param multiplier Growth factor per retry (default 2).
+     * @return This policy.
+     */
+    public RetryPolicy withBackoff(Duration initial, Duration max, double multiplier) {
+        if (initial.isNegative() || max.compareTo(initial) < 0 || multiplier < 1) {
+            throw new IllegalArgumentException("Invalid backoff");
+        }
+        this.initialBackoffNanos = initial.toNanos();
+        this.maxBackoffNanos = max.toNanos();
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    /**
+     * @param jitter Fraction of each delay that is randomized, from 0 (none) to 1 (full jitter). Default 0.5.
+     * @return This policy.
+     */
+    public RetryPolicy withJitter(double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Limits retries to a fraction of the requests made, plus a small allowance per second so that low traffic can
+     * still retry.
+     *
+     * @param ratio              Retries allowed per request (default 0.2).
+     * @param minRetriesPerSecond Retries always allowed per second (default 10).
+     * @return This policy.
+     */
+    public RetryPolicy withRetryBudget(double ratio, int minRetriesPerSecond) {
+        if (ratio < 0 || minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException("Retry budget cannot be negative");
+        }
+        this.depositPerRequest = Math.round(ratio * RETRY_COST);
+        this.minRetries = minRetriesPerSecond == 0 ? null : new TokenBucket(minRetriesPerSecond, minRetriesPerSecond);
+        this.balance.set(0);
+        return this;
+    }
+
+    /**
+     * Also retries requests that are not idempotent after failures that may have come after the server received them
+     * (read timeouts, 5xx answers). For {@code SendSms} this can deliver and bill the same messages twice, so it is off
+     * by default: only failures to connect are retried.
+     *
+     * @param ambiguousSendRetries true to accept duplicate deliveries in exchange for fewer failed sends.
+     * @return This policy.
+     */
+    public RetryPolicy withAmbiguousSendRetries(boolean ambiguousSendRetries) {
+        this.ambiguousSendRetries = ambiguousSendRetries;
+        return this;
+    }
+
+    /**
+     * @param error Failure of an attempt.
+     * @return true if the failure is worth retrying, for an idempotent request.
+     */
+    public boolean isRetryable(Throwable error) {
+        return isTransientFailure(error);
+    }
+
+    /**
+     * @param error Failure of an attempt.
+     * @param body  Body of the request.
+     * @return true if the failure is worth retrying and retrying cannot repeat a request the server already received,
+     * unless ambiguous send retries are allowed.
+     */
+    public boolean isRetryable(Throwable error, JsonBody body) {
+        return isRetryable(error) && (body.isIdempotent() || ambiguousSendRetries || isNotSent(error));
+    }
+
+    /**
+     * @param error Failure of a request.
+     * @return true if the request certainly did not reach the server: the connection could not be established.
+     */
+    public static boolean isNotSent(Throwable error) {
+        if (!(error instanceof CommsTransportException)
+                || ((CommsTransportException) error).getStatusCode() != CommsTransportException.NO_RESPONSE) {
+            return false;
+        }
+        for (Throwable cause = error.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+            if (cause == cause.getCause()) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param error Failure of a request.
+     * @return true for transport failures and 5xx answers, which say nothing about the request itself.
+     */
+    public static boolean isTransientFailure(Throwable error) {
+        if (error instanceof CircuitBreakerOpenException || !(error instanceof CommsTransportException)) {
+            return false;
+        }
+        int status = ((CommsTransportException) error).getStatusCode();
+        return status == CommsTransportException.NO_RESPONSE || status >= 500;
+    }
+
+    /**
+     * @param retry Retry number, starting at 1.
+     * @return Delay before that retry, in nanoseconds.
+     */
+    public long backoffNanos(int retry) {
+        double delay = Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(multiplier, retry - 1));
+        return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Records a new request, adding to the retry budget.
+     */
+    void onRequest() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) return;
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerRequest)));
+    }
+
+    /**
+     * Takes one retry from the budget.
+     *
+     * @return false if the budget is exhausted and the request should fail instead.
+     */
+    boolean tryAcquireRetry() {
+        TokenBucket minRetries = this.minRetries;
+        if (minRetries != null && minRetries.tryAcquire(1) == 0) {
+            return true;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current < RETRY_COST) return false;
+        } while (!balance.compareAndSet(current, current - RETRY_COST));
+        return true;
+    }
+}
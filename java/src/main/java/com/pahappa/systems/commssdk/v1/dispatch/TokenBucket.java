@@ -0,0 +1,91 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm.
+ * <p>
+ * The whole state is one {@code long} (the time at which the bucket will be full again) updated with CAS, so any
+ * number of threads can share a bucket without locking. A request for more tokens than the burst size is admitted
+ * when the bucket is full and pays its debt before the next one.
+ * </p>
+ */
+public final class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    /**
+     * Theoretical arrival time: the bucket is full at or after this instant.
+     */
+    private final AtomicLong fullAt;
+
+    /**
+     * @param tokensPerSecond Sustained refill rate.
+     * @param burst           Bucket capacity: tokens that can be taken at once after an idle period.
+     */
+    public TokenBucket(double tokensPerSecond, long burst) {
+        this(tokensPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double tokensPerSecond, long burst, LongSupplier clock) {
+        if (tokensPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.nanosPerToken = Math.max(1, Math.round(1e9 / tokensPerSecond));
+        this.burstNanos = burst * nanosPerToken;
+        this.clock = clock;
+        this.fullAt = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Takes tokens only if they are available now.
+     *
+     * @param tokens Tokens to take.
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until they would be available.
+     */
+    public long tryAcquire(long tokens) {
+        long cost = tokens * nanosPerToken;
+        while (true) {
+            long now = clock.getAsLong();
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            long next = start + cost;
+            long excess = next - now - burstNanos;
+            if (excess > 0 && current > now) {
+                return Math.min(excess, current - now);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Takes tokens unconditionally, borrowing from the future if necessary.
+     *
+     * @param tokens Tokens to take.
+     * @return Nanoseconds the caller must wait before using them (0 if available now).
+     */
+    public long reserve(long tokens) {
+        long cost = tokens * nanosPerToken;
+        while (true) {
+            long now = clock.getAsLong();
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            long next = start + cost;
+            if (fullAt.compareAndSet(current, next)) {
+                return Math.max(0, Math.min(next - now - burstNanos, start - now));
+            }
+        }
+    }
+
+    /**
+     * Gives back tokens taken by {@link #tryAcquire(long)} that ended up unused.
+     *
+     * @param tokens Tokens to return.
+     */
+    public void release(long tokens) {
+        fullAt.addAndGet(-tokens * nanosPerToken);
+    }
+}
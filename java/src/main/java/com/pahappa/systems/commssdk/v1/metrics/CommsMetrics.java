@@ -0,0 +1,81 @@
+package com.pahappa.systems.commssdk.v1.metrics;
+
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+
+/**
+ * Receives measurements from a {@link com.pahappa.systems.commssdk.v1.CommsSDK}.
+ * <p>
+ * Every method has an empty default, so implementations only override what they record. Methods are called on the
+ * request path from any thread and must be thread safe, cheap and must not allocate; {@link SimpleCommsMetrics}
+ * records into {@code LongAdder}s and the {@code comms-sdk-micrometer} module adapts to Micrometer.
+ * </p>
+ */
+public interface CommsMetrics {
+    /**
+     * Records nothing.
+     */
+    CommsMetrics NOOP = new CommsMetrics() {
+    };
+
+    /**
+     * Phases of a request.
+     */
+    enum Phase {
+        /**
+         * Validating and de-duplicating the numbers.
+         */
+        VALIDATE,
+        /**
+         * Generating the JSON request. Send bodies are generated while they are written, so this time is also
+         * part of the network phase's wall time and is subtracted from it.
+         */
+        SERIALIZE,
+        /**
+         * Sending the request and receiving the response, without serialization.
+         */
+        NETWORK,
+        /**
+         * Parsing the response.
+         */
+        PARSE
+    }
+
+    /**
+     * @param phase Phase of a request.
+     * @param nanos Time spent in the phase.
+     */
+    default void recordPhase(Phase phase, long nanos) {
+    }
+
+    /**
+     * @param count Numbers dropped because they failed validation. Duplicates are not counted.
+     */
+    default void numbersRejected(long count) {
+    }
+
+    /**
+     * A request was handed to the transport.
+     */
+    default void requestStarted() {
+    }
+
+    /**
+     * A request handed to the transport has completed, successfully or not.
+     */
+    default void requestFinished() {
+    }
+
+    /**
+     * @param statusCode HTTP status, or {@code CommsTransportException.NO_RESPONSE} if there was no response.
+     */
+    default void transportError(int statusCode) {
+    }
+
+    /**
+     * @param status   Status of the API response.
+     * @param messages Recipients in the request (0 for balance queries).
+     * @param cost     {@code Cost} of the response, 0 if absent.
+     */
+    default void response(ApiResponseCode status, int messages, long cost) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.pahappa.systems.commssdk.v1.metrics;
+
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dependency-free {@link CommsMetrics} that keeps counters and latency histograms in memory.
+ * <p>
+ * All recording goes into striped {@link LongAdder}s, so it neither allocates nor contends between threads.
+ * Latencies are kept in power-of-two buckets (nanoseconds), which bounds the error of a percentile to a factor of
+ * two; use the Micrometer module for precise, exportable histograms.
+ * </p>
+ */
+public class SimpleCommsMetrics implements CommsMetrics {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[][] histograms = new LongAdder[Phase.values().length][BUCKETS];
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder numbersRejected = new LongAdder();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder cost = new LongAdder();
+
+    public SimpleCommsMetrics() {
+        for (int phase = 0; phase < histograms.length; phase++) {
+            phaseNanos[phase] = new LongAdder();
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                histograms[phase][bucket] = new LongAdder();
+            }
+        }
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        nanos = Math.max(0, nanos);
+        // bucket b holds [2^b, 2^(b+1)), bucket 0 also holds 0
+        histograms[phase.ordinal()][nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos)].increment();
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    @Override
+    public void numbersRejected(long count) {
+        numbersRejected.add(count);
+    }
+
+    @Override
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    @Override
+    public void requestFinished() {
+        inFlight.decrement();
+    }
+
+    @Override
+    public void transportError(int statusCode) {
+        transportErrors.increment();
+    }
+
+    @Override
+    public void response(ApiResponseCode status, int messages, long cost) {
+        if (status == ApiResponseCode.OK) {
+            ok.increment();
+            messagesSent.add(messages);
+        } else {
+            failed.increment();
+        }
+        this.cost.add(cost);
+    }
+
+    /**
+     * @return Number of times the phase was recorded.
+     */
+    public long getCount(Phase phase) {
+        long count = 0;
+        for (LongAdder bucket : histograms[phase.ordinal()]) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return Total time spent in the phase.
+     */
+    public Duration getTotalTime(Phase phase) {
+        return Duration.ofNanos(phaseNanos[phase.ordinal()].sum());
+    }
+
+    /**
+     * @param phase    Phase.
+     * @param quantile Quantile between 0 and 1, e.g. 0.99.
+     * @return Upper bound of the bucket holding the quantile, or zero if nothing was recorded.
+     */
+    public Duration getPercentile(Phase phase, double quantile) {
+        long count = getCount(phase);
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        LongAdder[] buckets = histograms[phase.ordinal()];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets[bucket].sum();
+            if (seen >= Math.max(1, rank)) {
+                return Duration.ofNanos(bucket >= 62 ? Long.MAX_VALUE : (2L << bucket) - 1);
+            }
+        }
+        return Duration.ofNanos(Long.MAX_VALUE);
+    }
+
+    /**
+     * @return Recipients of requests answered with {@code OK}.
+     */
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    /**
+     * @return Invalid or duplicate numbers dropped before sending.
+     */
+    public long getNumbersRejected() {
+        return numbersRejected.sum();
+    }
+
+    /**
+     * @return Responses with status {@code OK}.
+     */
+    public long getOkResponses() {
+        return ok.sum();
+    }
+
+    /**
+     * @return Responses with status {@code Failed}.
+     */
+    public long getFailedResponses() {
+        return failed.sum();
+    }
+
+    /**
+     * @return Requests that failed in the transport, including non-2xx answers.
+     */
+    public long getTransportErrors() {
+        return transportErrors.sum();
+    }
+
+    /**
+     * @return Requests currently in flight.
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * @return Sum of the {@code Cost} of every response.
+     */
+    public long getCost() {
+        return cost.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CommsMetrics(");
+        for (Phase phase : Phase.values()) {
+            sb.append(phase).append(": n=").append(getCount(phase))
+                    .append(" p50<=").append(getPercentile(phase, 0.5).toNanos() / 1000).append("us")
+                    .append(" p99<=").append(getPercentile(phase, 0.99).toNanos() / 1000).append("us, ");
+        }
+        return sb.append("sent=").append(getMessagesSent())
+                .append(", rejected=").append(getNumbersRejected())
+                .append(", ok=").append(getOkResponses())
+                .append(", failed=").append(getFailedResponses())
+                .append(", transportErrors=").append(getTransportErrors())
+                .append(", inFlight=").append(getInFlight())
+                .append(", cost=").append(getCost())
+                .append(')').toString();
+    }
+}
@@ -11,12 +11,22 @@ public enum ApiResponseCode {
         return name();
     }
 
+    /**
+     * Binds the {@code Status} of a response, ignoring case. The API's own spellings are matched without a scan.
+     */
     @JsonCreator
-    public ApiResponseCode fromJson(String json) {
-        for (ApiResponseCode code : ApiResponseCode.values()) {
-            if (code.name().equalsIgnoreCase(json)) {
-                return code;
-            }
+    public static ApiResponseCode fromJson(String json) {
+        if ("OK".equals(json)) {
+            return OK;
+        }
+        if ("Failed".equals(json)) {
+            return Failed;
+        }
+        if ("ok".equalsIgnoreCase(json)) {
+            return OK;
+        }
+        if ("failed".equalsIgnoreCase(json)) {
+            return Failed;
         }
         throw new IllegalArgumentException("Unknown value: " + json);
     }
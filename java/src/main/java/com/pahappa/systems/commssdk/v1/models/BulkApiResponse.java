@@ -0,0 +1,154 @@
+package com.pahappa.systems.commssdk.v1.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Aggregate of the responses to a send that was split into several {@code SendSms} requests.
+ * <p>
+ * Status is {@link ApiResponseCode#OK} only if every chunk succeeded. Costs are summed and follow-up codes of the
+ * successful chunks are comma separated. Numbers from chunks that failed or got no response are listed in
+ * {@code getFailedNumbers()} so they can be retried.
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class BulkApiResponse extends ApiResponse {
+    /**
+     * Response per chunk, in request order. An entry is null when that chunk got no usable response.
+     */
+    @JsonIgnore
+    private final List<ApiResponse> chunkResponses;
+    @JsonIgnore
+    private final List<String> failedNumbers;
+    /**
+     * Numbers from the chunks that got no response because their request failed (e.g. in transport), a subset of
+     * {@code failedNumbers}. Unlike numbers of a {@code Failed} chunk, these may succeed when retried.
+     */
+    @JsonIgnore
+    private final List<String> erroredNumbers;
+    /**
+     * Error per chunk, in request order. An entry is null when that chunk's request did not fail.
+     */
+    @JsonIgnore
+    private final List<Throwable> chunkErrors;
+    // numbers of each chunk that got no response because its request failed, null for the other chunks
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final List<List<String>> erroredChunks;
+
+    private BulkApiResponse(List<ApiResponse> chunkResponses, List<String> failedNumbers, List<String> erroredNumbers,
+                            List<Throwable> chunkErrors, List<List<String>> erroredChunks) {
+        this.chunkResponses = chunkResponses;
+        this.failedNumbers = failedNumbers;
+        this.erroredNumbers = erroredNumbers;
+        this.chunkErrors = chunkErrors;
+        this.erroredChunks = erroredChunks;
+    }
+
+    /**
+     * @param errors Which request failures to include, e.g. only those where nothing was sent.
+     * @return Numbers from the chunks whose request failed with an error accepted by the filter, a subset of
+     * {@code erroredNumbers}.
+     */
+    public List<String> getErroredNumbers(Predicate<Throwable> errors) {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < erroredChunks.size(); i++) {
+            if (erroredChunks.get(i) != null && errors.test(chunkErrors.get(i))) {
+                numbers.addAll(erroredChunks.get(i));
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Wraps a single response that stands for a whole send in which no request was made, e.g. one whose every
+     * message was suppressed as a duplicate.
+     *
+     * @param response The response to wrap.
+     * @return An aggregate with that response as its only chunk and no failed numbers.
+     */
+    public static BulkApiResponse of(ApiResponse response) {
+        return combine(Collections.singletonList(Collections.emptyList()), new ApiResponse[]{response}, new Throwable[1]);
+    }
+
+    /**
+     * Combines per-chunk results.
+     *
+     * @param chunks    Numbers of each request that was sent.
+     * @param responses Response per request, null where none was received.
+     * @param errors    Error per request, null where none occurred.
+     * @return The aggregate response.
+     */
+    public static BulkApiResponse combine(List<List<String>> chunks, ApiResponse[] responses, Throwable[] errors) {
+        List<String> failedNumbers = new ArrayList<>();
+        List<String> erroredNumbers = new ArrayList<>();
+        List<List<String>> erroredChunks = new ArrayList<>(chunks.size());
+        StringBuilder followUpCodes = new StringBuilder();
+        String firstFailure = null;
+        int failedChunks = 0;
+        int cost = 0;
+        boolean hasCost = false;
+        String currency = null;
+        Double balance = null;
+        for (int i = 0; i < chunks.size(); i++) {
+            ApiResponse response = responses[i];
+            if (response != null && response.getCost() != null) {
+                cost += response.getCost();
+                hasCost = true;
+            }
+            if (response != null && currency == null) {
+                currency = response.getCurrency();
+            }
+            if (response != null && response.getBalance() != null && (balance == null || response.getBalance() < balance)) {
+                balance = response.getBalance();
+            }
+            erroredChunks.add(response == null && errors[i] != null ? chunks.get(i) : null);
+            if (response != null && response.getStatus() == ApiResponseCode.OK) {
+                if (response.getMessageFollowUpCode() != null) {
+                    if (followUpCodes.length() > 0) followUpCodes.append(',');
+                    followUpCodes.append(response.getMessageFollowUpCode());
+                }
+                continue;
+            }
+            failedChunks++;
+            if (firstFailure == null) {
+                if (response != null) firstFailure = response.getMessage();
+                else if (errors[i] != null) firstFailure = errors[i].getMessage();
+                else firstFailure = "No response from the server";
+            }
+            failedNumbers.addAll(chunks.get(i));
+            if (response == null && errors[i] != null) {
+                erroredNumbers.addAll(chunks.get(i));
+            }
+        }
+        BulkApiResponse bulk = new BulkApiResponse(Collections.unmodifiableList(Arrays.asList(responses)),
+                Collections.unmodifiableList(failedNumbers), Collections.unmodifiableList(erroredNumbers),
+                Collections.unmodifiableList(Arrays.asList(errors)), erroredChunks);
+        bulk.setCost(hasCost ? cost : null);
+        bulk.setCurrency(currency);
+        bulk.setBalance(balance);
+        bulk.setMessageFollowUpCode(followUpCodes.length() == 0 ? null : followUpCodes.toString());
+        if (failedChunks == 0) {
+            bulk.setStatus(ApiResponseCode.OK);
+            bulk.setMessage(responses.length > 0 ? responses[0].getMessage() : null);
+        } else {
+            bulk.setStatus(ApiResponseCode.Failed);
+            bulk.setMessage(failedChunks + " of " + chunks.size() + " chunks failed: " + firstFailure);
+        }
+        return bulk;
+    }
+}
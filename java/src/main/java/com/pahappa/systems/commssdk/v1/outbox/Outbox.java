@@ -0,0 +1,679 @@
+package com.pahappa.systems.commssdk.v1.outbox;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.dispatch.CircuitBreakerOpenException;
+import com.pahappa.systems.commssdk.v1.dispatch.RateLimitExceededException;
+import com.pahappa.systems.commssdk.v1.dispatch.RetryPolicy;
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.models.BulkApiResponse;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.transport.CommsTransportException;
+import com.pahappa.systems.commssdk.v1.utils.Log;
+import com.pahappa.systems.commssdk.v1.utils.NumberValidator;
+import com.pahappa.systems.commssdk.v1.utils.PhoneNumbers;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Durable outbox: send requests are written to a local log before they are sent, so that accepted messages survive
+ * a crash or restart of the JVM.
+ * <p>
+ * {@link #sendSMS(List, String, String, MessagePriority)} appends the request to a memory-mapped, segment-rotated
+ * write-ahead log and returns once it is persisted. A background dispatcher sends the logged requests through the
+ * {@link CommsSDK} and appends a completion record holding the {@code MsgFollowUpUniqueCode}. An entry is only
+ * completed by an API response ({@code Failed} ones included) or by a request that can never be valid.
+ * </p>
+ * <p>
+ * Failures where nothing was sent (connection refused, an open circuit breaker, a fail-fast rate limit) are retried
+ * with backoff until the request goes through. Failures where the request may already have been accepted (read
+ * timeouts, 5xx answers, unreadable responses) are not retried by default, since sending again could deliver and
+ * bill the messages twice: the entry is <em>parked</em>, kept in the log and reported to
+ * {@link Listener#onParked(long, Throwable)}, until the application {@link #resend(long) resends} or
+ * {@link #discard(long) discards} it. {@link #withAmbiguousRetries(int)} opts into at-least-once delivery instead.
+ * When a request larger than the SDK's chunk size is sent in chunks, only the numbers of the chunks that failed are
+ * logged again and retried or parked. Segments whose entries are all complete are deleted, oldest first, and
+ * {@link #start()} replays whatever is still pending from a previous run, except parked entries.
+ * </p>
+ * <pre>
+ * Outbox outbox = new Outbox(Paths.get("/var/lib/myapp/outbox"), sdk)
+ *         .withListener((id, response) -&gt; ...)
+ *         .start();
+ * long id = outbox.sendSMS(numbers, "Hello", "MyBrand", MessagePriority.HIGH);
+ * </pre>
+ */
+public class Outbox implements AutoCloseable {
+    private static final byte ENQUEUED = 1;
+    private static final byte COMPLETED = 2;
+    private static final byte PARKED = 3;
+
+    /**
+     * Notified on the dispatcher thread when a logged request has been answered.
+     */
+    public interface Listener {
+        /**
+         * @param id       Id returned by {@link #sendSMS(List, String, String, MessagePriority)}.
+         * @param response The API response, or null if the request could not be sent (e.g. no valid numbers). For a
+         *                 chunked request that was partly retried, the response to the last attempt.
+         */
+        void onComplete(long id, ApiResponse response);
+
+        /**
+         * Called when a request is parked because it may or may not have been sent, see {@link #resend(long)} and
+         * {@link #discard(long)}.
+         *
+         * @param id    Id returned by {@link #sendSMS(List, String, String, MessagePriority)}.
+         * @param error The failure that left the outcome unknown, or null if the response could not be read.
+         */
+        default void onParked(long id, Throwable error) {
+        }
+    }
+
+    private final Path directory;
+    private final CommsSDK sdk;
+    private int segmentSize = 16 * 1024 * 1024;
+    private boolean syncOnAppend = true;
+    private long initialBackoffMillis = 1000;
+    private long maxBackoffMillis = 60_000;
+    private int ambiguousRetries;
+    private Listener listener = (id, response) -> {
+    };
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Entry> pending = new LinkedHashMap<>();
+    private long nextId = 1;
+    private ScheduledThreadPoolExecutor dispatcher;
+    @Getter
+    private volatile boolean started;
+
+    /**
+     * @param directory Directory for the log files, created if missing. Use one directory per outbox.
+     * @param sdk       SDK used to send the logged requests.
+     */
+    public Outbox(@NonNull Path directory, @NonNull CommsSDK sdk) {
+        this.directory = directory;
+        this.sdk = sdk;
+    }
+
+    /**
+     * @param segmentSize Size of each log file in bytes (default 16 MiB). Larger requests get a file of their own.
+     * @return This outbox.
+     */
+    public Outbox withSegmentSize(int segmentSize) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("Segment size must be at least 1024 bytes");
+        }
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * @param syncOnAppend Whether every append is forced to the storage device before it is acknowledged (default
+     *                     true). Without it a request survives a JVM crash but not an OS crash or power loss.
+     * @return This outbox.
+     */
+    public Outbox withSyncOnAppend(boolean syncOnAppend) {
+        this.syncOnAppend = syncOnAppend;
+        return this;
+    }
+
+    /**
+     * The outbox retries on top of any retries configured with {@link CommsSDK#withResilience}: each attempt made
+     * here may itself be retried by the SDK before it counts as failed, so the two delays add up.
+     *
+     * @param initial Delay before the first retry of a request that failed in transport (default 1s). A rate limit
+     *                or open circuit breaker that names its own delay is waited out instead.
+     * @param max     Upper bound for the doubling delay (default 1 minute).
+     * @return This outbox.
+     */
+    public Outbox withRetryBackoff(Duration initial, Duration max) {
+        this.initialBackoffMillis = Math.max(1, initial.toMillis());
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, max.toMillis());
+        return this;
+    }
+
+    /**
+     * Opts into at-least-once delivery: a request that failed after it may have reached the API (read timeout, 5xx,
+     * unreadable response) is sent again, up to the given number of times, before it is parked. Every such retry
+     * risks delivering and billing the messages twice.
+     *
+     * @param maxRetries Retries of a request whose outcome is unknown (default 0: park it right away).
+     * @return This outbox.
+     */
+    public Outbox withAmbiguousRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries cannot be negative");
+        }
+        this.ambiguousRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * @param listener Receives the outcome of each logged request.
+     * @return This outbox.
+     */
+    public Outbox withListener(@NonNull Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Replays the log, re-dispatches the requests that were still pending and starts accepting new ones.
+     *
+     * @return This outbox.
+     */
+    public synchronized Outbox start() {
+        if (started) {
+            return this;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(Segment::isSegment).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                Segment segment = Segment.open(file);
+                segments.addLast(segment);
+                segment.replay(record -> replay(segment, record));
+            }
+            long sequence = segments.isEmpty() ? 0 : segments.getLast().getSequence() + 1;
+            segments.addLast(Segment.create(directory, sequence, segmentSize));
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open outbox in " + directory + ": " + e.getMessage(), e);
+        }
+        dispatcher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "comms-sdk-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        started = true;
+        if (!pending.isEmpty()) {
+            Log.info("Outbox: replaying %d pending request(s)", pending.size());
+        }
+        for (Entry entry : pending.values()) {
+            if (!entry.parked) {
+                dispatch(entry, 0);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Validates the numbers, logs the request and schedules it for sending.
+     *
+     * @param numbers  List of recipient phone numbers.
+     * @param message  Message text.
+     * @param senderId Sender ID, or null for the SDK's default.
+     * @param priority Message priority, or null for the highest.
+     * @return Id of the logged request, passed to the {@link Listener}.
+     * @throws IllegalArgumentException if there is nothing to send.
+     * @throws UncheckedIOException     if the request could not be persisted.
+     */
+    public long sendSMS(List<String> numbers, String message, String senderId, MessagePriority priority) {
+        if (numbers == null || numbers.isEmpty()) {
+            throw new IllegalArgumentException("Numbers list cannot be empty");
+        }
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be empty");
+        }
+        PhoneNumbers valid = NumberValidator.validateNumbersCompact(numbers);
+        if (valid.isEmpty()) {
+            throw new IllegalArgumentException("No valid phone numbers provided");
+        }
+        Entry entry;
+        synchronized (this) {
+            if (!started) {
+                throw new IllegalStateException("Outbox is not started");
+            }
+            entry = new Entry(nextId++, valid.toKeyArray(), message, senderId, priority);
+            entry.segment = append(entry.encode());
+            entry.segment.live++;
+            pending.put(entry.id, entry);
+            if (syncOnAppend) {
+                entry.segment.force();
+            }
+        }
+        dispatch(entry, 0);
+        return entry.id;
+    }
+
+    /**
+     * @return Number of logged requests that have not completed yet, parked ones included.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return Ids of the requests that are parked because they may or may not have been sent.
+     */
+    public synchronized List<Long> getParkedIds() {
+        List<Long> ids = new ArrayList<>();
+        for (Entry entry : pending.values()) {
+            if (entry.parked) {
+                ids.add(entry.id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Sends a parked request again, e.g. after checking with the provider that it was not delivered.
+     *
+     * @param id Id of a parked request.
+     * @return true if it was scheduled, false if it is not parked or the outbox is not started.
+     */
+    public boolean resend(long id) {
+        Entry remaining;
+        synchronized (this) {
+            Entry entry = pending.get(id);
+            if (!started || entry == null || !entry.parked) {
+                return false;
+            }
+            remaining = requeue(entry, entry.keys);
+            remaining.parked = false;
+        }
+        dispatch(remaining, 0);
+        return true;
+    }
+
+    /**
+     * Completes a parked request without sending it, e.g. because it turned out to have been delivered.
+     *
+     * @param id Id of a parked request.
+     * @return true if it was discarded, false if it is not parked.
+     */
+    public synchronized boolean discard(long id) {
+        Entry entry = pending.get(id);
+        if (entry == null || !entry.parked) {
+            return false;
+        }
+        complete(entry, null);
+        return true;
+    }
+
+    /**
+     * Stops the dispatcher, waiting for a request in flight to be answered. Pending requests stay in the log and are
+     * sent after the next {@link #start()}.
+     */
+    @Override
+    public void close() {
+        ScheduledThreadPoolExecutor dispatcher;
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+            started = false;
+            dispatcher = this.dispatcher;
+        }
+        dispatcher.shutdown();
+        try {
+            dispatcher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeSegments();
+    }
+
+    private synchronized void closeSegments() {
+        for (Segment segment : segments) {
+            segment.force();
+        }
+        segments.clear();
+        pending.clear();
+    }
+
+    private void dispatch(Entry entry, long delayMillis) {
+        try {
+            dispatcher.schedule(() -> send(entry, delayMillis), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // dispatcher shut down, the entry is replayed on the next start
+        }
+    }
+
+    private void send(Entry entry, long previousDelay) {
+        ApiResponse response;
+        try {
+            response = sdk.querySendSMS(new PhoneNumbers(entry.keys, entry.keys.length), entry.message, entry.senderId, entry.priority);
+        } catch (IllegalArgumentException e) {
+            // the request itself is invalid, sending it again cannot help
+            Log.warn("Outbox: request %d cannot be sent: %s", entry.id, e.getMessage());
+            response = null;
+        } catch (RuntimeException e) {
+            retryOrPark(entry, e, delay(e, previousDelay));
+            return;
+        }
+        if (response == null && !sdk.isAuthenticated() && !sdk.isLazyAuthentication()) {
+            // credentials could not be checked, most likely the endpoint is unreachable; nothing was sent
+            long delay = backoff(previousDelay);
+            Log.warn("Outbox: request %d not sent, credentials could not be checked, retrying in %dms", entry.id, delay);
+            dispatch(entry, delay);
+            return;
+        }
+        if (response == null) {
+            // the request was sent but its response could not be read
+            retryOrPark(entry, null, backoff(previousDelay));
+            return;
+        }
+        if (response instanceof BulkApiResponse && !((BulkApiResponse) response).getErroredNumbers().isEmpty()) {
+            retryOrParkChunks(entry, (BulkApiResponse) response, previousDelay);
+            return;
+        }
+        complete(entry, response);
+        try {
+            listener.onComplete(entry.id, response);
+        } catch (RuntimeException e) {
+            Log.warn("Outbox: listener failed for request %d: %s", entry.id, e.getMessage());
+        }
+    }
+
+    /**
+     * Retries a request that failed, unless it may have been sent and its ambiguous retries are used up.
+     *
+     * @param error The failure, or null if the response could not be read.
+     */
+    private void retryOrPark(Entry entry, Throwable error, long delay) {
+        String reason = error == null ? "unreadable response" : error.getMessage();
+        if (error != null && isNotSent(error)) {
+            Log.warn("Outbox: request %d not sent (%s), retrying in %dms", entry.id, reason, delay);
+        } else if (entry.ambiguousAttempts < ambiguousRetries) {
+            entry.ambiguousAttempts++;
+            Log.warn("Outbox: request %d may have been sent (%s), sending it again in %dms", entry.id, reason, delay);
+        } else {
+            park(entry, error, reason);
+            return;
+        }
+        dispatch(entry, delay);
+    }
+
+    /**
+     * Retries the chunks of a chunked request that failed, or parks them if some may have been sent.
+     */
+    private void retryOrParkChunks(Entry entry, BulkApiResponse response, long previousDelay) {
+        long delay = backoff(previousDelay);
+        for (Throwable error : response.getChunkErrors()) {
+            if (error != null) {
+                delay = Math.max(delay, delay(error, previousDelay));
+            }
+        }
+        boolean ambiguous = !response.getErroredNumbers(error -> !isNotSent(error)).isEmpty();
+        if (ambiguous && entry.ambiguousAttempts >= ambiguousRetries) {
+            Entry remaining = requeue(entry, keys(response.getErroredNumbers()));
+            if (remaining != null) {
+                park(remaining, null, response.getMessage());
+            }
+            return;
+        }
+        if (ambiguous) {
+            entry.ambiguousAttempts++;
+        }
+        List<String> errored = response.getErroredNumbers();
+        Log.warn("Outbox: %d number(s) of request %d failed (%s), retrying them in %dms", errored.size(), entry.id,
+                response.getMessage(), delay);
+        Entry remaining = requeue(entry, keys(errored));
+        if (remaining != null) {
+            dispatch(remaining, delay);
+        }
+    }
+
+    /**
+     * @return true if the failure happened before the request could reach the API.
+     */
+    private static boolean isNotSent(Throwable error) {
+        return error instanceof RateLimitExceededException || error instanceof CircuitBreakerOpenException
+                || RetryPolicy.isNotSent(error);
+    }
+
+    /**
+     * @return The delay the failure asks for, if any, otherwise the next backoff.
+     */
+    private long delay(Throwable error, long previousDelay) {
+        if (error instanceof RateLimitExceededException) {
+            return Math.max(1, ((RateLimitExceededException) error).getRetryAfter().toMillis());
+        }
+        if (error instanceof CircuitBreakerOpenException) {
+            return Math.max(1, ((CircuitBreakerOpenException) error).getRetryAfter().toMillis());
+        }
+        return backoff(previousDelay);
+    }
+
+    private long backoff(long previousDelay) {
+        return Math.min(maxBackoffMillis, Math.max(initialBackoffMillis, previousDelay * 2));
+    }
+
+    private static long[] keys(List<String> numbers) {
+        long[] keys = new long[numbers.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = NumberValidator.validateNumberKey(numbers.get(i)); // already normalized, so valid
+        }
+        return keys;
+    }
+
+    /**
+     * Logs a request again with only the given numbers, under the same id. The new record supersedes the old one,
+     * so after a crash only these numbers are replayed.
+     *
+     * @return The entry to dispatch, or null if the outbox was closed meanwhile.
+     */
+    private synchronized Entry requeue(Entry entry, long[] keys) {
+        if (pending.get(entry.id) != entry) {
+            return null;
+        }
+        Entry remaining = new Entry(entry.id, keys, entry.message, entry.senderId, entry.priority);
+        remaining.ambiguousAttempts = entry.ambiguousAttempts;
+        try {
+            remaining.segment = append(remaining.encode());
+        } catch (UncheckedIOException e) {
+            Log.error("Outbox: failed to log the retry of request %d, retrying it whole: %s", entry.id, e.getMessage());
+            return entry;
+        }
+        remaining.segment.live++;
+        entry.segment.live--;
+        pending.put(entry.id, remaining);
+        if (syncOnAppend) {
+            remaining.segment.force();
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            Log.warn("Outbox: failed to delete a complete segment: %s", e.getMessage());
+        }
+        return remaining;
+    }
+
+    /**
+     * Records that a request may or may not have been sent, so that it is neither retried nor replayed until the
+     * application decides.
+     */
+    private void park(Entry entry, Throwable error, String reason) {
+        synchronized (this) {
+            if (pending.get(entry.id) != entry) {
+                return;
+            }
+            entry.parked = true;
+            ByteBuffer record = ByteBuffer.allocate(1 + 8);
+            record.put(PARKED).putLong(entry.id).flip();
+            try {
+                Segment segment = append(record);
+                if (syncOnAppend) {
+                    segment.force();
+                }
+            } catch (UncheckedIOException e) {
+                Log.error("Outbox: failed to record that request %d is parked: %s", entry.id, e.getMessage());
+            }
+        }
+        Log.warn("Outbox: request %d may have been sent (%s), parked until it is resent or discarded", entry.id, reason);
+        try {
+            listener.onParked(entry.id, error);
+        } catch (RuntimeException e) {
+            Log.warn("Outbox: listener failed for request %d: %s", entry.id, e.getMessage());
+        }
+    }
+
+    private synchronized void complete(Entry entry, ApiResponse response) {
+        if (pending.get(entry.id) != entry) {
+            return;
+        }
+        pending.remove(entry.id);
+        boolean ok = response != null && response.getStatus() == ApiResponseCode.OK;
+        String followUpCode = response == null ? null : response.getMessageFollowUpCode();
+        byte[] code = followUpCode == null ? new byte[0] : followUpCode.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + 8 + 1 + 4 + code.length);
+        record.put(COMPLETED).putLong(entry.id).put((byte) (ok ? 1 : 0)).putInt(code.length).put(code).flip();
+        try {
+            Segment segment = append(record);
+            entry.segment.live--;
+            if (syncOnAppend) {
+                segment.force();
+            }
+            compact();
+        } catch (IOException e) {
+            Log.error("Outbox: failed to record completion of request %d: %s", entry.id, e.getMessage());
+        }
+    }
+
+    private Segment append(ByteBuffer record) {
+        Segment active = segments.getLast();
+        if (active.append(record)) {
+            return active;
+        }
+        try {
+            active.force();
+            Segment next = Segment.create(directory, active.getSequence() + 1, Math.max(segmentSize, Segment.HEADER + record.remaining()));
+            segments.addLast(next);
+            next.append(record);
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate outbox segment: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes complete segments from the oldest one on. Completion, parking and superseding records only refer to
+     * entries in the same or older segments, so deleting in order never resurrects a completed entry.
+     */
+    private void compact() throws IOException {
+        while (segments.size() > 1 && segments.getFirst().live == 0) {
+            segments.removeFirst().delete();
+        }
+    }
+
+    private void replay(Segment segment, ByteBuffer record) {
+        byte type = record.get();
+        long id = record.getLong();
+        nextId = Math.max(nextId, id + 1);
+        if (type == ENQUEUED) {
+            Entry entry = Entry.decode(id, record);
+            entry.segment = segment;
+            segment.live++;
+            Entry superseded = pending.put(id, entry); // a retry of part of the request
+            if (superseded != null) {
+                superseded.segment.live--;
+            }
+        } else if (type == PARKED) {
+            Entry entry = pending.get(id);
+            if (entry != null) {
+                entry.parked = true;
+            }
+        } else if (type == COMPLETED) {
+            Entry entry = pending.remove(id);
+            if (entry != null) {
+                entry.segment.live--;
+            }
+        }
+    }
+
+    /**
+     * @return Sequence numbers of the segment files currently making up the log.
+     */
+    synchronized List<Long> segmentSequences() {
+        List<Long> sequences = new ArrayList<>();
+        for (Segment segment : segments) {
+            sequences.add(segment.getSequence());
+        }
+        return sequences;
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long[] keys;
+        private final String message;
+        private final String senderId;
+        private final MessagePriority priority;
+        private Segment segment;
+        // retries of failures that may have been sent, not logged: a replay starts counting again
+        private int ambiguousAttempts;
+        private boolean parked;
+
+        Entry(long id, long[] keys, String message, String senderId, MessagePriority priority) {
+            this.id = id;
+            this.keys = keys;
+            this.message = message;
+            this.senderId = senderId;
+            this.priority = priority;
+        }
+
+        ByteBuffer encode() {
+            byte[] message = this.message.getBytes(StandardCharsets.UTF_8);
+            byte[] senderId = this.senderId == null ? null : this.senderId.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record = ByteBuffer.allocate(1 + 8 + 1 + 4 + (senderId == null ? 0 : senderId.length)
+                    + 4 + message.length + 4 + 8 * keys.length);
+            record.put(ENQUEUED).putLong(id).put((byte) (priority == null ? -1 : priority.ordinal()));
+            putBytes(record, senderId);
+            putBytes(record, message);
+            record.putInt(keys.length);
+            record.asLongBuffer().put(keys);
+            record.position(record.limit());
+            return record.flip();
+        }
+
+        static Entry decode(long id, ByteBuffer record) {
+            byte priority = record.get();
+            String senderId = getString(record);
+            String message = getString(record);
+            long[] keys = new long[record.getInt()];
+            record.asLongBuffer().get(keys);
+            return new Entry(id, keys, message, senderId, priority < 0 ? null : MessagePriority.values()[priority]);
+        }
+
+        private static void putBytes(ByteBuffer record, byte[] bytes) {
+            record.putInt(bytes == null ? -1 : bytes.length);
+            if (bytes != null) {
+                record.put(bytes);
+            }
+        }
+
+        private static String getString(ByteBuffer record) {
+            int length = record.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            record.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.pahappa.systems.commssdk.v1.outbox;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of the outbox log.
+ * <p>
+ * Records are {@code [int length][int crc32][payload]}. The file is pre-sized and zero filled, so a zero length
+ * marks the end of the written part; a record with a bad checksum (torn by a crash during the write) also ends it.
+ * Not thread safe, the {@link Outbox} serializes access.
+ * </p>
+ */
+final class Segment {
+    static final int HEADER = 8;
+    private static final String PREFIX = "outbox-";
+    private static final String SUFFIX = ".log";
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // not a JDK that has it
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    @Getter
+    private final long sequence;
+    private final Path path;
+    private MappedByteBuffer buffer;
+    /**
+     * Entries enqueued in this segment that are not completed yet.
+     */
+    int live;
+
+    private Segment(long sequence, Path path, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static Segment create(Path directory, long sequence, int size) throws IOException {
+        Path path = directory.resolve(String.format("%s%016d%s", PREFIX, sequence, SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(sequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    static Segment open(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        long sequence = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(sequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    /**
+     * Appends a record if it fits.
+     *
+     * @param payload Record payload, from its position to its limit.
+     * @return false if the segment is full.
+     */
+    boolean append(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (buffer.remaining() < HEADER + length) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.putInt(start, length); // written last so that a torn record reads as the end of the log
+        return true;
+    }
+
+    /**
+     * Flushes written records to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Reads every intact record from the start and leaves the segment positioned after the last one.
+     *
+     * @param consumer Receives each payload as a read-only buffer.
+     */
+    void replay(Consumer<ByteBuffer> consumer) {
+        buffer.position(0);
+        while (buffer.remaining() >= HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length <= 0 || length > buffer.remaining() - HEADER) {
+                break;
+            }
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(start + HEADER).limit(start + HEADER + length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+                break;
+            }
+            consumer.accept(payload.slice().asReadOnlyBuffer());
+            buffer.position(start + HEADER + length);
+        }
+    }
+
+    /**
+     * Releases the mapping and deletes the file. Some platforms (Windows) refuse to delete a mapped file, so the
+     * mapping is released first instead of waiting for the buffer to be garbage collected. No view of the buffer may
+     * be used afterwards.
+     */
+    void delete() throws IOException {
+        MappedByteBuffer mapped = buffer;
+        buffer = null;
+        if (mapped != null) {
+            unmap(mapped);
+        }
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Unmaps a buffer with {@code sun.misc.Unsafe.invokeCleaner}, the only way short of garbage collection. Where it
+     * is not available the buffer is left to the garbage collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // released when garbage collected
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carries JSON requests to the EgoSMS API.
+ * <p>
+ * Implementations must be thread safe: one instance is shared by every {@link com.pahappa.systems.commssdk.v1.CommsSDK}
+ * that uses it, and by {@link com.pahappa.systems.commssdk.v1.utils.Validator}.
+ * The default is {@link JdkHttpTransport#shared()}.
+ * </p>
+ */
+public interface CommsTransport {
+
+    /**
+     * POSTs a JSON body and waits for the response.
+     *
+     * @param url  Endpoint URL.
+     * @param body JSON request body.
+     * @return The raw response body, parsed by the caller straight from the bytes.
+     * @throws CommsTransportException if the request could not be completed or the server answered with a non-2xx status.
+     */
+    byte[] post(String url, JsonBody body);
+
+    /**
+     * POSTs a JSON body without blocking the caller.
+     *
+     * @param url  Endpoint URL.
+     * @param body JSON request body.
+     * @return Future completed with the raw response body, or exceptionally with a {@link CommsTransportException}.
+     */
+    CompletableFuture<byte[]> postAsync(String url, JsonBody body);
+}
@@ -0,0 +1,26 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import lombok.Getter;
+
+/**
+ * Thrown by a {@link CommsTransport} when a request fails before a usable response is received.
+ */
+@Getter
+public class CommsTransportException extends RuntimeException {
+    /**
+     * Status code used when no HTTP response was received at all (connection refused, timeout, ...).
+     */
+    public static final int NO_RESPONSE = -1;
+
+    private final int statusCode;
+
+    public CommsTransportException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = NO_RESPONSE;
+    }
+
+    public CommsTransportException(int statusCode, String body) {
+        super("HTTP " + statusCode + (body == null || body.isEmpty() ? "" : ": " + body));
+        this.statusCode = statusCode;
+    }
+}
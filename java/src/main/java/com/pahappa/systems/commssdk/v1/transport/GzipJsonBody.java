@@ -0,0 +1,141 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@link JsonBody} that gzips another body while it is read, see {@link JsonBody#gzip(JsonBody, int)}.
+ * <p>
+ * The JDK only gzips into an {@code OutputStream}, which would mean buffering the whole body or a thread per
+ * request. Instead each read pulls a piece of the JSON from the wrapped stream and deflates it into the caller's
+ * buffer, framed with the gzip header and trailer, so a lazily generated body is compressed as it is generated.
+ * </p>
+ */
+final class GzipJsonBody implements JsonBody {
+    static final String GZIP = "gzip";
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int TRAILER_SIZE = 8;
+
+    private final JsonBody body;
+    private final int level;
+
+    GzipJsonBody(JsonBody body, int level) {
+        this.body = body;
+        this.level = level;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new Stream(body.openStream(), level);
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return body.isIdempotent();
+    }
+
+    @Override
+    public String contentEncoding() {
+        return GZIP;
+    }
+
+    @Override
+    public String toString() {
+        return body.toString();
+    }
+
+    /**
+     * Decodes a response body according to its {@code Content-Encoding} header.
+     *
+     * @param body            Response bytes as received.
+     * @param contentEncoding Header value, or null.
+     * @return The decoded bytes.
+     */
+    static byte[] decode(byte[] body, String contentEncoding) {
+        if (contentEncoding == null || !GZIP.equalsIgnoreCase(contentEncoding.trim()) || body.length == 0) {
+            return body;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Stream extends InputStream {
+        private final InputStream in;
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] input = new byte[8192];
+        private final byte[] trailer = new byte[TRAILER_SIZE];
+        private int headerPosition;
+        private int trailerPosition = -1;
+
+        Stream(InputStream in, int level) {
+            this.in = in;
+            this.deflater = new Deflater(level, true);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (headerPosition < HEADER.length) {
+                int n = Math.min(len, HEADER.length - headerPosition);
+                System.arraycopy(HEADER, headerPosition, b, off, n);
+                headerPosition += n;
+                return n;
+            }
+            while (!deflater.finished()) {
+                if (deflater.needsInput()) {
+                    int n = in.read(input);
+                    if (n < 0) {
+                        deflater.finish();
+                    } else if (n > 0) {
+                        crc.update(input, 0, n);
+                        deflater.setInput(input, 0, n);
+                    }
+                }
+                int n = deflater.deflate(b, off, len);
+                if (n > 0) {
+                    return n;
+                }
+            }
+            if (trailerPosition < 0) {
+                writeIntLE(trailer, 0, (int) crc.getValue());
+                writeIntLE(trailer, 4, (int) deflater.getBytesRead());
+                trailerPosition = 0;
+            }
+            if (trailerPosition == TRAILER_SIZE) {
+                return -1;
+            }
+            int n = Math.min(len, TRAILER_SIZE - trailerPosition);
+            System.arraycopy(trailer, trailerPosition, b, off, n);
+            trailerPosition += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            in.close();
+        }
+
+        private static void writeIntLE(byte[] b, int off, int value) {
+            b[off] = (byte) value;
+            b[off + 1] = (byte) (value >>> 8);
+            b[off + 2] = (byte) (value >>> 16);
+            b[off + 3] = (byte) (value >>> 24);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link CommsTransport} backed by a single {@link HttpClient}.
+ * <p>
+ * The client keeps connections alive and reuses them across requests, and negotiates HTTP/2 when the server
+ * supports it, so the TLS handshake is paid once per connection instead of once per request.
+ * Async requests are truly non-blocking: no thread waits on the socket.
+ * Request bodies are streamed from {@link JsonBody#openStream()} rather than copied into memory first, and
+ * response bodies are returned as received, without decoding them to a String. Responses may be gzipped
+ * ({@code Accept-Encoding: gzip}) and are then decompressed.
+ * </p>
+ */
+public class JdkHttpTransport implements CommsTransport {
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    /**
+     * Creates a transport with the default timeouts.
+     */
+    public JdkHttpTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, null);
+    }
+
+    /**
+     * Creates a transport with custom timeouts.
+     *
+     * @param connectTimeout Maximum time to establish a connection.
+     * @param requestTimeout Maximum time to wait for a response once the request is sent.
+     * @param executor       Executor for the client's internal tasks, or null for the JDK default.
+     */
+    public JdkHttpTransport(@NonNull Duration connectTimeout, @NonNull Duration requestTimeout, Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.client = builder.build();
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Returns the transport shared by every SDK instance that was not given its own.
+     *
+     * @return The shared transport.
+     */
+    public static JdkHttpTransport shared() {
+        return Shared.INSTANCE;
+    }
+
+    @Override
+    public byte[] post(String url, JsonBody body) {
+        try {
+            return bodyOf(client.send(request(url, body), HttpResponse.BodyHandlers.ofByteArray()));
+        } catch (IOException e) {
+            throw new CommsTransportException("I/O error on POST request for \"" + url + "\": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommsTransportException("Interrupted while waiting for \"" + url + "\"", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<byte[]> postAsync(String url, JsonBody body) {
+        return client.sendAsync(request(url, body), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        throw new CommsTransportException("I/O error on POST request for \"" + url + "\": " + cause.getMessage(), cause);
+                    }
+                    return bodyOf(response);
+                });
+    }
+
+    private HttpRequest request(String url, JsonBody body) {
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(body::openStream);
+        long length = body.contentLength();
+        if (length == 0) {
+            publisher = HttpRequest.BodyPublishers.noBody();
+        } else if (length > 0) {
+            publisher = HttpRequest.BodyPublishers.fromPublisher(publisher, length);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", GzipJsonBody.GZIP);
+        if (body.contentEncoding() != null) {
+            request.header("Content-Encoding", body.contentEncoding());
+        }
+        return request.POST(publisher).build();
+    }
+
+    private static byte[] bodyOf(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        byte[] body;
+        try {
+            body = GzipJsonBody.decode(response.body(), response.headers().firstValue("Content-Encoding").orElse(null));
+        } catch (UncheckedIOException e) {
+            throw new CommsTransportException("Could not decompress the response: " + e.getCause().getMessage(), e.getCause());
+        }
+        if (status < 200 || status >= 300) {
+            throw new CommsTransportException(status, new String(body, StandardCharsets.UTF_8));
+        }
+        return body;
+    }
+
+    private static final class Shared {
+        private static final JdkHttpTransport INSTANCE = new JdkHttpTransport();
+    }
+}
@@ -0,0 +1,117 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A JSON request body that a {@link CommsTransport} can stream to the server.
+ * <p>
+ * Bodies may be generated lazily while they are read, so a large {@code SendSms} payload never has to exist
+ * in memory as a whole. {@link #openStream()} can be called more than once, e.g. when a request is retried.
+ * </p>
+ */
+public interface JsonBody {
+
+    /**
+     * Opens a new stream over the JSON bytes, starting from the beginning.
+     *
+     * @return Stream over the body.
+     */
+    InputStream openStream();
+
+    /**
+     * @return The body size in bytes, or -1 if unknown.
+     */
+    default long contentLength() {
+        return -1;
+    }
+
+    /**
+     * Whether the request may be repeated after the server might have received it. {@code SendSms} requests are
+     * not: a retry after a timeout or a 5xx answer can deliver and bill the messages twice.
+     *
+     * @return true if repeating the request is harmless (the default).
+     */
+    default boolean isIdempotent() {
+        return true;
+    }
+
+    /**
+     * @return The {@code Content-Encoding} of the stream's bytes, or null if they are plain JSON.
+     */
+    default String contentEncoding() {
+        return null;
+    }
+
+    /**
+     * Reads the whole body into memory, for transports that can't stream.
+     *
+     * @return The JSON bytes.
+     */
+    default byte[] toByteArray() {
+        try (InputStream in = openStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Wraps an already serialized body.
+     *
+     * @param json JSON bytes.
+     * @return Body over the given bytes.
+     */
+    static JsonBody of(byte[] json) {
+        return of(json, true);
+    }
+
+    /**
+     * Wraps an already serialized body.
+     *
+     * @param json       JSON bytes.
+     * @param idempotent Whether the request may be repeated, see {@link #isIdempotent()}.
+     * @return Body over the given bytes.
+     */
+    static JsonBody of(byte[] json, boolean idempotent) {
+        return new JsonBody() {
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(json);
+            }
+
+            @Override
+            public long contentLength() {
+                return json.length;
+            }
+
+            @Override
+            public byte[] toByteArray() {
+                return json;
+            }
+
+            @Override
+            public boolean isIdempotent() {
+                return idempotent;
+            }
+        };
+    }
+
+    /**
+     * Gzips a body while it is streamed, for {@code Content-Encoding: gzip}. The length of the compressed body is
+     * not known in advance.
+     *
+     * @param body  Body to compress.
+     * @param level Deflate level, from {@link java.util.zip.Deflater#BEST_SPEED} (1) to
+     *              {@link java.util.zip.Deflater#BEST_COMPRESSION} (9).
+     * @return Body over the compressed bytes.
+     */
+    static JsonBody gzip(JsonBody body, int level) {
+        if (level < 1 || level > 9) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9");
+        }
+        return new GzipJsonBody(body, level);
+    }
+}
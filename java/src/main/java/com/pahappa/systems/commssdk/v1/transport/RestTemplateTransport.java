@@ -0,0 +1,68 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import lombok.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link CommsTransport} for applications that already configure a Spring {@link RestTemplate}.
+ * <p>
+ * Spring is an optional dependency of the SDK: add {@code spring-web} to your own build to use this class.
+ * RestTemplate is blocking, so {@link #postAsync(String, JsonBody)} occupies an executor thread per request.
+ * Whether the body is streamed or buffered depends on the RestTemplate's request factory.
+ * </p>
+ */
+public class RestTemplateTransport implements CommsTransport {
+    private final RestTemplate restTemplate;
+    private final Executor executor;
+
+    /**
+     * @param restTemplate Configured RestTemplate (connection pooling and timeouts are up to its request factory).
+     * @param executor     Executor that runs async requests.
+     */
+    public RestTemplateTransport(@NonNull RestTemplate restTemplate, @NonNull Executor executor) {
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+    }
+
+    @Override
+    public byte[] post(String url, JsonBody body) {
+        try {
+            return restTemplate.execute(url, HttpMethod.POST, request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON); // force JSON because some edge cases had the media type being sent as XML
+                if (body.contentLength() >= 0) {
+                    request.getHeaders().setContentLength(body.contentLength());
+                }
+                if (body.contentEncoding() != null) {
+                    request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, body.contentEncoding());
+                }
+                request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, GzipJsonBody.GZIP);
+                try (InputStream in = body.openStream()) {
+                    StreamUtils.copy(in, request.getBody());
+                }
+            }, response -> GzipJsonBody.decode(StreamUtils.copyToByteArray(response.getBody()),
+                    response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)));
+        } catch (RestClientResponseException e) {
+            throw new CommsTransportException(e.getRawStatusCode(), e.getResponseBodyAsString());
+        } catch (UncheckedIOException e) {
+            throw new CommsTransportException("Could not decompress the response: " + e.getCause().getMessage(), e.getCause());
+        } catch (RestClientException e) {
+            throw new CommsTransportException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<byte[]> postAsync(String url, JsonBody body) {
+        return CompletableFuture.supplyAsync(() -> post(url, body), executor);
+    }
+}
@@ -0,0 +1,451 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.models.UserData;
+import com.pahappa.systems.commssdk.v1.utils.MessageEncoding;
+import com.pahappa.systems.commssdk.v1.utils.MessageTemplate;
+import com.pahappa.systems.commssdk.v1.utils.PhoneNumbers;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Streaming {@code SendSms} payload for one message sent to many numbers.
+ * <p>
+ * Produces the same JSON as serializing an {@link com.pahappa.systems.commssdk.v1.models.ApiRequest} with one
+ * {@link com.pahappa.systems.commssdk.v1.models.MessageModel} per number, but without creating those models:
+ * the message, sender ID and priority are encoded once and the {@code msgdata} entries are generated from the
+ * number list a few kilobytes at a time while the transport reads the stream.
+ * </p>
+ * Numbers must already be normalized by {@link com.pahappa.systems.commssdk.v1.utils.NumberValidator} (digits only).
+ * When they are given as {@link PhoneNumbers} they are written straight from their packed form, so no String is
+ * ever created for them.
+ * <p>
+ * A {@link #personalized personalized} body carries a {@link MessageTemplate} and one row of values per number
+ * instead of a shared message; each message is rendered into a buffer reused for the whole stream and written from
+ * there, so no String is created for it either.
+ * </p>
+ */
+public final class SendSmsBody implements JsonBody {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final SerializableString METHOD = new SerializedString("method");
+    private static final SerializableString SEND_SMS = new SerializedString("SendSms");
+    private static final SerializableString USERDATA = new SerializedString("userdata");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString PASSWORD = new SerializedString("password");
+    private static final SerializableString MSGDATA = new SerializedString("msgdata");
+    private static final SerializableString NUMBER = new SerializedString("number");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString SENDER_ID = new SerializedString("senderid");
+    private static final SerializableString PRIORITY = new SerializedString("priority");
+    /**
+     * Target size of each piece of the body generated while streaming.
+     */
+    private static final int PIECE_SIZE = 16 * 1024;
+
+    private static final AtomicLongFieldUpdater<SendSmsBody> SERIALIZE_NANOS = AtomicLongFieldUpdater.newUpdater(SendSmsBody.class, "serializeNanos");
+
+    private final Shared shared;
+    @Getter
+    private final List<String> numbers;
+    /**
+     * Template values of each number, for personalized bodies.
+     */
+    private final List<? extends Map<String, ?>> values;
+    /**
+     * Time spent generating JSON by the streams of this body, added up.
+     */
+    private volatile long serializeNanos;
+
+    /**
+     * @param userData Account credentials.
+     * @param message  Message text, shared by every number.
+     * @param senderId Sender ID, shared by every number.
+     * @param priority Priority, shared by every number.
+     * @param numbers  Normalized recipient numbers.
+     */
+    public SendSmsBody(UserData userData, String message, String senderId, MessagePriority priority, List<String> numbers) {
+        this(new Shared(userData, message, null, false, senderId, priority), numbers, null);
+    }
+
+    private SendSmsBody(Shared shared, List<String> numbers, List<? extends Map<String, ?>> values) {
+        this.shared = shared;
+        this.numbers = numbers;
+        this.values = values;
+    }
+
+    /**
+     * Returns a body with no recipients yet that renders a message per recipient, see
+     * {@link #withRecipients(List, List)}.
+     *
+     * @param userData      Account credentials.
+     * @param template      Message template.
+     * @param transliterate Whether rendered messages that are not GSM-7 are transliterated.
+     * @param senderId      Sender ID, shared by every number.
+     * @param priority      Priority, shared by every number.
+     * @return Personalized body without recipients.
+     */
+    public static SendSmsBody personalized(UserData userData, MessageTemplate template, boolean transliterate,
+                                           String senderId, MessagePriority priority) {
+        return new SendSmsBody(new Shared(userData, null, template, transliterate, senderId, priority),
+                Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Returns a personalized body for other recipients, reusing the already encoded shared fields.
+     *
+     * @param numbers Normalized recipient numbers.
+     * @param values  Template values of each number, in the same order.
+     * @return Body for the given recipients.
+     */
+    public SendSmsBody withRecipients(List<String> numbers, List<? extends Map<String, ?>> values) {
+        if (shared.template == null) {
+            throw new IllegalStateException("Not a personalized body");
+        }
+        if (numbers.size() != values.size()) {
+            throw new IllegalArgumentException("Expected one row of values per number");
+        }
+        return new SendSmsBody(shared, numbers, values);
+    }
+
+    /**
+     * @return true if each recipient gets a message rendered from a template.
+     */
+    public boolean isPersonalized() {
+        return shared.template != null;
+    }
+
+    /**
+     * Returns a body for a range of this body's numbers, reusing the already encoded shared fields.
+     *
+     * @param from First number index (inclusive).
+     * @param to   Last number index (exclusive).
+     * @return Body for the given range.
+     */
+    public SendSmsBody slice(int from, int to) {
+        return new SendSmsBody(shared, numbers.subList(from, to), values == null ? null : values.subList(from, to));
+    }
+
+    /**
+     * Returns a body for other numbers with the same message, reusing the already encoded shared fields.
+     *
+     * @param numbers Normalized recipient numbers.
+     * @return Body for the given numbers.
+     */
+    public SendSmsBody withNumbers(List<String> numbers) {
+        if (shared.template != null) {
+            throw new IllegalStateException("A personalized body needs values for its numbers, use withRecipients");
+        }
+        return new SendSmsBody(shared, numbers, null);
+    }
+
+    /**
+     * @return Message shared by every number, or null for a personalized body.
+     */
+    public String getMessage() {
+        return shared.message == null ? null : shared.message.getValue();
+    }
+
+    /**
+     * @return Sender ID shared by every number, or null if none was given.
+     */
+    public String getSenderId() {
+        return shared.senderId == null ? null : shared.senderId.getValue();
+    }
+
+    /**
+     * @return Priority shared by every number, or null if none was given.
+     */
+    public MessagePriority getPriority() {
+        return shared.messagePriority;
+    }
+
+    /**
+     * @return Number of recipients in this body.
+     */
+    public int size() {
+        return numbers.size();
+    }
+
+    /**
+     * A send is not repeated once the server may have received it, see {@link JsonBody#isIdempotent()}.
+     */
+    @Override
+    public boolean isIdempotent() {
+        return false;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new Stream(shared, numbers, values, this);
+    }
+
+    /**
+     * @return Nanoseconds spent generating JSON for this body so far, over every stream opened on it.
+     */
+    public long getSerializeNanos() {
+        return serializeNanos;
+    }
+
+    /**
+     * Computed from the encoded size of the shared fields and the length of each number, without generating the body.
+     * Unknown (-1) for personalized bodies.
+     */
+    @Override
+    public long contentLength() {
+        if (shared.template != null) {
+            return -1;
+        }
+        long length = shared.emptySize() + (long) numbers.size() * shared.entrySize() + Math.max(0, numbers.size() - 1);
+        if (numbers instanceof PhoneNumbers) {
+            PhoneNumbers phoneNumbers = (PhoneNumbers) numbers;
+            for (int i = 0; i < phoneNumbers.size(); i++) {
+                length += PhoneNumbers.length(phoneNumbers.key(i));
+            }
+        } else {
+            for (String number : numbers) {
+                length += number.length();
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Fields shared by every {@code msgdata} entry, encoded once and reused by all slices and streams.
+     */
+    private static final class Shared {
+        private final SerializableString userName;
+        private final SerializableString apiKey;
+        private final SerializableString message;
+        private final SerializableString senderId;
+        private final SerializableString priority;
+        private final MessagePriority messagePriority;
+        private final MessageTemplate template;
+        private final boolean transliterate;
+        private final int entriesPerPiece;
+        private long emptySize = -1;
+        private long entrySize = -1;
+
+        Shared(UserData userData, String message, MessageTemplate template, boolean transliterate, String senderId,
+               MessagePriority priority) {
+            this.userName = serialized(userData.getUsername());
+            this.apiKey = serialized(userData.getApikey());
+            this.message = serialized(message);
+            this.template = template;
+            this.transliterate = transliterate;
+            this.senderId = serialized(senderId);
+            this.priority = priority == null ? null : new SerializedString(priority.getValue());
+            this.messagePriority = priority;
+            int approxEntry = 64 + (this.message == null ? 0 : this.message.asQuotedUTF8().length)
+                    + (template == null ? 0 : template.getLiteralLength() + 16 * template.getVariables().size())
+                    + (this.senderId == null ? 0 : this.senderId.asQuotedUTF8().length);
+            this.entriesPerPiece = Math.max(1, PIECE_SIZE / approxEntry);
+        }
+
+        private static SerializableString serialized(String value) {
+            return value == null ? null : new SerializedString(value);
+        }
+
+        /**
+         * Size of a body with no numbers.
+         */
+        synchronized long emptySize() {
+            if (emptySize < 0) {
+                emptySize = drain(new Stream(this, Collections.emptyList(), null, null));
+            }
+            return emptySize;
+        }
+
+        /**
+         * Size of one {@code msgdata} entry with an empty number.
+         */
+        synchronized long entrySize() {
+            if (entrySize < 0) {
+                entrySize = drain(new Stream(this, Collections.singletonList(""), null, null)) - emptySize();
+            }
+            return entrySize;
+        }
+
+        private static long drain(InputStream in) {
+            try {
+                return in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Generates the body piece by piece into a reusable buffer as it is read.
+     */
+    private static final class Stream extends InputStream {
+        private final Shared shared;
+        private final List<String> numbers;
+        private final List<? extends Map<String, ?>> values;
+        private final SendSmsBody owner;
+        private final PhoneNumbers phoneNumbers;
+        private final char[] digits = new char[PhoneNumbers.MAX_LENGTH];
+        private final StringBuilder rendered;
+        private char[] renderedChars;
+        private final Buffer buffer = new Buffer();
+        private final JsonGenerator generator;
+        private int next = -1;
+        private int position;
+        private boolean done;
+
+        Stream(Shared shared, List<String> numbers, List<? extends Map<String, ?>> values, SendSmsBody owner) {
+            this.shared = shared;
+            this.numbers = numbers;
+            this.values = values;
+            this.owner = owner;
+            this.rendered = shared.template == null ? null : new StringBuilder(shared.template.getLiteralLength() + 64);
+            this.renderedChars = shared.template == null ? null : new char[shared.template.getLiteralLength() + 64];
+            this.phoneNumbers = numbers instanceof PhoneNumbers ? (PhoneNumbers) numbers : null;
+            try {
+                this.generator = JSON_FACTORY.createGenerator(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureAvailable()) return -1;
+            return buffer.bytes()[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (!ensureAvailable()) return -1;
+            int n = Math.min(len, buffer.size() - position);
+            System.arraycopy(buffer.bytes(), position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.size() - position;
+        }
+
+        private boolean ensureAvailable() throws IOException {
+            while (position == buffer.size()) {
+                if (done) return false;
+                fill();
+            }
+            return true;
+        }
+
+        private void fill() throws IOException {
+            long start = System.nanoTime();
+            try {
+                generate();
+            } finally {
+                if (owner != null) {
+                    SERIALIZE_NANOS.addAndGet(owner, System.nanoTime() - start);
+                }
+            }
+        }
+
+        private void generate() throws IOException {
+            buffer.reset();
+            position = 0;
+            if (next < 0) {
+                generator.writeStartObject();
+                generator.writeFieldName(METHOD);
+                generator.writeString(SEND_SMS);
+                generator.writeFieldName(USERDATA);
+                generator.writeStartObject();
+                writeField(USERNAME, shared.userName);
+                writeField(PASSWORD, shared.apiKey);
+                generator.writeEndObject();
+                generator.writeFieldName(MSGDATA);
+                generator.writeStartArray();
+                next = 0;
+            }
+            int end = Math.min(numbers.size(), next + shared.entriesPerPiece);
+            for (; next < end; next++) {
+                generator.writeStartObject();
+                generator.writeFieldName(NUMBER);
+                if (phoneNumbers != null) {
+                    generator.writeString(digits, 0, phoneNumbers.getChars(next, digits));
+                } else {
+                    generator.writeString(numbers.get(next));
+                }
+                if (shared.template == null) {
+                    writeField(MESSAGE, shared.message);
+                } else {
+                    writeMessage(values == null ? Collections.emptyMap() : values.get(next));
+                }
+                writeField(PRIORITY, shared.priority);
+                writeField(SENDER_ID, shared.senderId);
+                generator.writeEndObject();
+            }
+            if (next == numbers.size()) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.close();
+                done = true;
+            } else {
+                generator.flush();
+            }
+        }
+
+        private void writeMessage(Map<String, ?> row) throws IOException {
+            rendered.setLength(0);
+            shared.template.renderTo(rendered, row);
+            generator.writeFieldName(MESSAGE);
+            if (shared.transliterate && MessageEncoding.of(rendered) == MessageEncoding.UCS_2) {
+                generator.writeString(MessageEncoding.transliterate(rendered.toString()));
+                return;
+            }
+            int length = rendered.length();
+            if (renderedChars.length < length) {
+                renderedChars = new char[Math.max(length, renderedChars.length * 2)];
+            }
+            rendered.getChars(0, length, renderedChars, 0);
+            generator.writeString(renderedChars, 0, length);
+        }
+
+        private void writeField(SerializableString name, SerializableString value) throws IOException {
+            generator.writeFieldName(name);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+        }
+    }
+
+    /**
+     * ByteArrayOutputStream that exposes its array so pieces can be read without copying.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(PIECE_SIZE + 1024);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
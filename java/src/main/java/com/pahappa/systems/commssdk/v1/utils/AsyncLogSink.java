@@ -0,0 +1,192 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link LogSink} that hands messages to a background thread through a bounded ring buffer, so that a slow sink
+ * (a console, a file, a network appender) never blocks the thread that logs.
+ * <p>
+ * Logging threads claim a slot with a single CAS and never wait: when the buffer is full the message is dropped and
+ * counted in {@link #getDropped()}. One daemon thread drains the buffer in order into the delegate.
+ * {@link #close()} writes out what is buffered and stops the thread. A message that was being logged while the sink
+ * closed is written by the thread that logged it, so no message is lost without being counted.
+ * </p>
+ * <pre>{@code
+ * Log.setSink(new AsyncLogSink(new ConsoleLogSink(), 8192));
+ * }</pre>
+ */
+public class AsyncLogSink implements LogSink, AutoCloseable {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LogSink delegate;
+    private final int mask;
+    // sequence of each slot: index when free for that position, position + 1 once written
+    private final AtomicLongArray sequences;
+    private final Log.Level[] levels;
+    private final String[] messages;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // held while draining, so that the consumer and late producers never drain at the same time
+    private final Object drainLock = new Object();
+    private final Thread consumer;
+    private volatile long head;
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    /**
+     * @param delegate Sink the messages are written to, on the background thread.
+     * @param capacity Number of messages that can wait, rounded up to a power of two.
+     */
+    public AsyncLogSink(@NonNull LogSink delegate, int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.delegate = delegate;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.levels = new Log.Level[size];
+        this.messages = new String[size];
+        this.consumer = new Thread(this::drainLoop, "comms-sdk-log");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public boolean isEnabled(Log.Level level) {
+        return delegate.isEnabled(level);
+    }
+
+    @Override
+    public void log(Log.Level level, String message) {
+        if (!running) {
+            delegate.log(level, message);
+            return;
+        }
+        long position;
+        while (true) {
+            position = tail.get();
+            long sequence = sequences.get((int) position & mask);
+            if (sequence < position) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                break;
+            }
+        }
+        int index = (int) position & mask;
+        levels[index] = level;
+        messages[index] = message;
+        sequences.set(index, position + 1);
+        if (!running) {
+            // the consumer may have drained for the last time before this slot was published
+            drainLocked();
+        } else if (idle) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * @return Number of messages dropped because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until every message logged before this call has been written to the delegate.
+     *
+     * @param timeoutMillis Maximum time to wait.
+     * @return true if everything was written in time.
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = tail.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (head < target) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        return true;
+    }
+
+    /**
+     * Writes out the buffered messages and stops the background thread. Messages logged afterwards are written to the
+     * delegate on the calling thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            if (drainLocked()) {
+                continue;
+            }
+            if (!running) {
+                // producers that publish from now on see running == false and drain their message themselves
+                drainLocked();
+                return;
+            }
+            idle = true;
+            if (!drainLocked()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+    }
+
+    private boolean drainLocked() {
+        synchronized (drainLock) {
+            return drain();
+        }
+    }
+
+    /**
+     * @return true if at least one message was written.
+     */
+    private boolean drain() {
+        long position = head;
+        boolean drained = false;
+        while (true) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            Log.Level level = levels[index];
+            String message = messages[index];
+            levels[index] = null;
+            messages[index] = null;
+            sequences.lazySet(index, position + mask + 1);
+            try {
+                delegate.log(level, message);
+            } catch (RuntimeException ignored) {
+                // a failing sink must not stop the logging thread
+            }
+            head = ++position;
+            drained = true;
+        }
+        return drained;
+    }
+}
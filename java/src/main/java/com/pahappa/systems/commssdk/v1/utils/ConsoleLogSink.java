@@ -0,0 +1,34 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import java.io.PrintStream;
+
+/**
+ * {@link LogSink} that prints {@code [CommsSDK]: message} lines, the SDK's default.
+ * <p>
+ * Printing is synchronous and every line takes the stream's lock; wrap it in an {@link AsyncLogSink} to keep it
+ * off the sending threads.
+ * </p>
+ */
+public class ConsoleLogSink implements LogSink {
+    private final PrintStream out;
+
+    /**
+     * Prints to {@code System.out}.
+     */
+    public ConsoleLogSink() {
+        this(System.out);
+    }
+
+    public ConsoleLogSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void log(Log.Level level, String message) {
+        if (level == Log.Level.INFO) {
+            out.println("[CommsSDK]: " + message);
+        } else {
+            out.println("[CommsSDK] " + level + ": " + message);
+        }
+    }
+}
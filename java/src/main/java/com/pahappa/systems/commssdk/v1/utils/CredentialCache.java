@@ -0,0 +1,161 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-JVM record of credentials that were recently validated against an API endpoint.
+ * <p>
+ * Instances created for the same account skip the validation request while the record is younger than the TTL
+ * (10 minutes by default), and concurrent validations of the same credentials share a single request. Failed
+ * validations are not cached. API keys are only kept as SHA-256 digests. Expired records are removed when they are
+ * looked up, and swept whenever the number of records doubles, so a process that sees many accounts over time
+ * only keeps those validated within the TTL.
+ * </p>
+ */
+public final class CredentialCache {
+    private static volatile long ttlNanos = TimeUnit.MINUTES.toNanos(10);
+    private static final ConcurrentMap<String, Long> VALIDATED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CompletableFuture<Boolean>> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final int MIN_SWEEP_SIZE = 64;
+    // record count at which expired records are swept next
+    private static final AtomicInteger SWEEP_AT = new AtomicInteger(MIN_SWEEP_SIZE);
+
+    private CredentialCache() {
+    }
+
+    /**
+     * @param ttl How long a successful validation is trusted; zero turns the cache off.
+     */
+    public static void setTtl(Duration ttl) {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("TTL cannot be negative");
+        }
+        ttlNanos = ttl.toNanos();
+        if (ttlNanos == 0) {
+            VALIDATED.clear();
+        }
+    }
+
+    /**
+     * Forgets every validation.
+     */
+    public static void clear() {
+        VALIDATED.clear();
+        SWEEP_AT.set(MIN_SWEEP_SIZE);
+    }
+
+    /**
+     * @return true if the credentials were validated against the endpoint within the TTL.
+     */
+    public static boolean isValidated(String url, String userName, String apiKey) {
+        return isFresh(key(url, userName, apiKey));
+    }
+
+    /**
+     * Records that the endpoint accepted the credentials, e.g. because it answered a request with them.
+     */
+    public static void markValidated(String url, String userName, String apiKey) {
+        if (ttlNanos > 0) {
+            put(key(url, userName, apiKey));
+        }
+    }
+
+    /**
+     * Forgets the validation of one set of credentials.
+     */
+    public static void invalidate(String url, String userName, String apiKey) {
+        VALIDATED.remove(key(url, userName, apiKey));
+    }
+
+    /**
+     * Returns the cached result if there is one, otherwise runs the check, sharing it with concurrent callers for
+     * the same credentials.
+     *
+     * @param check Validation request, returning true if the credentials are valid.
+     * @return true if the credentials are valid.
+     */
+    public static boolean validate(String url, String userName, String apiKey, BooleanSupplier check) {
+        String key = key(url, userName, apiKey);
+        if (isFresh(key)) {
+            return true;
+        }
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = IN_FLIGHT.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            boolean valid = check.getAsBoolean();
+            if (valid && ttlNanos > 0) {
+                put(key);
+            }
+            mine.complete(valid);
+            return valid;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT.remove(key, mine);
+        }
+    }
+
+    /**
+     * @return true if the record is within the TTL. An expired record is removed.
+     */
+    private static boolean isFresh(String key) {
+        Long validatedAt = VALIDATED.get(key);
+        if (validatedAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - validatedAt < ttlNanos) {
+            return true;
+        }
+        VALIDATED.remove(key, validatedAt);
+        return false;
+    }
+
+    private static void put(String key) {
+        VALIDATED.put(key, System.nanoTime());
+        int size = VALIDATED.size();
+        int sweepAt = SWEEP_AT.get();
+        if (size >= sweepAt && SWEEP_AT.compareAndSet(sweepAt, Integer.MAX_VALUE)) {
+            long now = System.nanoTime();
+            VALIDATED.values().removeIf(validatedAt -> now - validatedAt >= ttlNanos);
+            SWEEP_AT.set(Math.max(MIN_SWEEP_SIZE, VALIDATED.size() * 2));
+        }
+    }
+
+    /**
+     * @return Number of validation records currently kept.
+     */
+    static int size() {
+        return VALIDATED.size();
+    }
+
+    private static String key(String url, String userName, String apiKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.valueOf(apiKey).getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(url).append('\n').append(userName).append('\n');
+            for (byte b : digest) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
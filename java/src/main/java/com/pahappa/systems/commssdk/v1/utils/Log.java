@@ -1,11 +1,154 @@
 package com.pahappa.systems.commssdk.v1.utils;
 
+import lombok.NonNull;
+
+/**
+ * The SDK's logger.
+ * <p>
+ * Messages go to a {@link LogSink}, by default {@link ConsoleLogSink} ({@code System.out}). Use
+ * {@link #setSink(LogSink)} to route them to SLF4J ({@link Slf4jLogSink}), off the calling thread
+ * ({@link AsyncLogSink}), or nowhere ({@link LogSink#NOOP}), and {@link #setLevel(Level)} to choose what is logged.
+ * </p>
+ * <p>
+ * A message below the level, or one the sink does not want, costs two volatile reads: formatting happens only
+ * after the check, so pass arguments instead of concatenating them. Formats use {@link String#format} syntax.
+ * Per-number messages of the validators are logged at {@link Level#DEBUG}.
+ * </p>
+ */
 public class Log {
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR,
+        /**
+         * Logs nothing, only meaningful as the level passed to {@link #setLevel(Level)}.
+         */
+        OFF
+    }
+
+    private static volatile LogSink sink = new ConsoleLogSink();
+    private static volatile Level level = Level.INFO;
+
+    /**
+     * Sets where messages go.
+     *
+     * @param sink The sink, {@link LogSink#NOOP} to discard everything.
+     */
+    public static void setSink(@NonNull LogSink sink) {
+        Log.sink = sink;
+    }
+
+    public static LogSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Sets the lowest level that is logged, {@link Level#INFO} by default.
+     */
+    public static void setLevel(@NonNull Level level) {
+        Log.level = level;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return true if a message at {@code level} would be logged. Use it to skip building costly arguments.
+     */
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(Log.level) >= 0 && level != Level.OFF && sink.isEnabled(level);
+    }
+
+    public static void log(Level level, String message) {
+        if (isEnabled(level)) {
+            sink.log(level, message);
+        }
+    }
+
+    public static void log(Level level, String format, Object... args) {
+        if (isEnabled(level)) {
+            sink.log(level, String.format(format, args));
+        }
+    }
+
+    public static void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void debug(String format, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            sink.log(Level.DEBUG, String.format(format, arg));
+        }
+    }
+
+    public static void debug(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) {
+            sink.log(Level.DEBUG, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    public static void info(String format, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            sink.log(Level.INFO, String.format(format, arg));
+        }
+    }
+
+    public static void info(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            sink.log(Level.INFO, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    public static void warn(String format, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            sink.log(Level.WARN, String.format(format, arg));
+        }
+    }
+
+    public static void warn(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) {
+            sink.log(Level.WARN, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void warn(String format, Object... args) {
+        log(Level.WARN, format, args);
+    }
+
+    public static void error(String message) {
+        log(Level.ERROR, message);
+    }
+
+    public static void error(String format, Object arg) {
+        if (isEnabled(Level.ERROR)) {
+            sink.log(Level.ERROR, String.format(format, arg));
+        }
+    }
+
+    public static void error(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) {
+            sink.log(Level.ERROR, String.format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Logs {@code message} at {@link Level#INFO}.
+     */
     public static void println(String message) {
-        System.out.println("[CommsSDK]: " + message);
+        info(message);
     }
 
+    /**
+     * Logs a formatted message at {@link Level#INFO}.
+     */
     public static void printf(String format, Object... args) {
-        println(String.format(format, args));
+        log(Level.INFO, format, args);
     }
 }
@@ -0,0 +1,32 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+/**
+ * Destination of the SDK's log messages, see {@link Log#setSink(LogSink)}.
+ * <p>
+ * Implementations must be thread safe; {@link #log(Log.Level, String)} is called on the thread that logs.
+ * </p>
+ */
+public interface LogSink {
+    /**
+     * Discards every message, without formatting it.
+     */
+    LogSink NOOP = new LogSink() {
+        @Override
+        public boolean isEnabled(Log.Level level) {
+            return false;
+        }
+
+        @Override
+        public void log(Log.Level level, String message) {
+        }
+    };
+
+    /**
+     * @return false if messages at {@code level} are dropped anyway, so that {@link Log} does not format them.
+     */
+    default boolean isEnabled(Log.Level level) {
+        return true;
+    }
+
+    void log(Log.Level level, String message);
+}
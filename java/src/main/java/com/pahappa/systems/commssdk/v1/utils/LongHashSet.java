@@ -0,0 +1,64 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+/**
+ * On-heap open-addressing {@link LongSet}: 8 bytes per slot and no per-entry objects.
+ */
+public final class LongHashSet implements LongSet {
+    private long[] table;
+    private int mask;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Number of keys the set should hold before it has to grow.
+     */
+    public LongHashSet(int expectedSize) {
+        table = new long[LongSet.tableSize(expectedSize)];
+        mask = table.length - 1;
+    }
+
+    @Override
+    public boolean add(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("0 cannot be stored in a LongSet");
+        }
+        int i = LongSet.hash(key) & mask;
+        for (long slot; (slot = table[i]) != 0; i = (i + 1) & mask) {
+            if (slot == key) return false;
+        }
+        table[i] = key;
+        if (++size * 3L > table.length * 2L) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(long key) {
+        int i = LongSet.hash(key) & mask;
+        for (long slot; (slot = table[i]) != 0; i = (i + 1) & mask) {
+            if (slot == key) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length << 1];
+        mask = table.length - 1;
+        for (long key : old) {
+            if (key == 0) continue;
+            int i = LongSet.hash(key) & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = key;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+/**
+ * A set of primitive {@code long} keys, used to de-duplicate phone numbers without boxing or Strings.
+ * <p>
+ * Implementations use open addressing with {@code 0} as the empty-slot marker, so {@code 0} cannot be stored.
+ * They are not thread safe.
+ * </p>
+ */
+public interface LongSet {
+    /**
+     * Sets expected to hold at least this many keys are allocated off-heap by {@link #create(int)}.
+     */
+    int OFF_HEAP_THRESHOLD = 1 << 22;
+
+    /**
+     * @param key Non-zero key to add.
+     * @return true if the key was not already present.
+     */
+    boolean add(long key);
+
+    /**
+     * @param key Key to look up.
+     * @return true if the key is present.
+     */
+    boolean contains(long key);
+
+    /**
+     * @return Number of keys in the set.
+     */
+    int size();
+
+    /**
+     * Creates a set sized for the expected number of keys, on-heap or off-heap depending on
+     * {@link #OFF_HEAP_THRESHOLD}.
+     *
+     * @param expectedSize Expected number of keys.
+     * @return A new empty set.
+     */
+    static LongSet create(int expectedSize) {
+        return expectedSize >= OFF_HEAP_THRESHOLD ? new OffHeapLongHashSet(expectedSize) : new LongHashSet(expectedSize);
+    }
+
+    /**
+     * Spreads the key bits so that sequential numbers don't cluster.
+     */
+    static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Smallest power of two table size that keeps the load factor under 2/3 for the expected size.
+     */
+    static int tableSize(int expectedSize) {
+        long needed = Math.max(16L, (long) expectedSize * 3 / 2 + 1);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Set too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
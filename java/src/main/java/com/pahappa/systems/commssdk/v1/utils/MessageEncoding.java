@@ -0,0 +1,229 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import lombok.Getter;
+
+/**
+ * Encoding an SMS is sent with, and the number of segments (billable parts) a text needs.
+ * <p>
+ * A text that only uses the GSM 03.38 default alphabet and its extension table is sent as {@link #GSM_7}: 160
+ * septets in a single SMS, or 153 per segment once it has to be split. Extension characters ({@code ^ { } \ [ ~ ] |
+ * €} and form feed) take two septets and are never split across segments. Any other character makes the whole text
+ * {@link #UCS_2}: 70 UTF-16 code units in a single SMS, 67 per segment, with surrogate pairs kept together.
+ * </p>
+ * <p>
+ * {@link #of(CharSequence)} and {@link #segments(CharSequence)} make one pass over the text without allocating, so
+ * they can run on every message. {@link #transliterate(String)} replaces common non-GSM characters (typographic
+ * quotes and dashes, accented letters outside the alphabet, ...) to keep a text in GSM-7.
+ * </p>
+ */
+@Getter
+public enum MessageEncoding {
+    GSM_7(160, 153),
+    UCS_2(70, 67);
+
+    /**
+     * Septets (GSM-7) or code units (UCS-2) that fit in a single SMS.
+     */
+    private final int singleLimit;
+    /**
+     * Septets (GSM-7) or code units (UCS-2) per segment of a multipart SMS.
+     */
+    private final int segmentLimit;
+
+    MessageEncoding(int singleLimit, int segmentLimit) {
+        this.singleLimit = singleLimit;
+        this.segmentLimit = segmentLimit;
+    }
+
+    // ASCII characters of the default alphabet: \n, \r, and 0x20-0x7E except ` and the extension characters
+    private static final long ASCII_BASIC_LOW = (1L << '\n') | (1L << '\r') | 0xFFFF_FFFF_0000_0000L;
+    private static final long ASCII_BASIC_HIGH = 0x7FFF_FFFF_FFFF_FFFFL
+            & ~bit('`') & ~bit('^') & ~bit('{') & ~bit('}') & ~bit('\\') & ~bit('[') & ~bit('~') & ~bit(']') & ~bit('|');
+
+    private static long bit(char c) {
+        return 1L << (c - 64);
+    }
+
+    /**
+     * @return Septets {@code c} takes in GSM-7: 1 for the default alphabet, 2 for the extension table, 0 if it
+     * cannot be encoded.
+     */
+    public static int gsmSeptets(char c) {
+        if (c < 64) {
+            if ((ASCII_BASIC_LOW & (1L << c)) != 0) return 1;
+            return c == '\f' ? 2 : 0;
+        }
+        if (c < 128) {
+            if ((ASCII_BASIC_HIGH & (1L << (c - 64))) != 0) return 1;
+            return c == '`' || c == 127 ? 0 : 2;
+        }
+        switch (c) {
+            case '£': case '¥': case 'è': case 'é': case 'ù': case 'ì': case 'ò': case 'Ç': case 'Ø': case 'ø':
+            case 'Å': case 'å': case 'Δ': case 'Φ': case 'Γ': case 'Λ': case 'Ω': case 'Π': case 'Ψ': case 'Σ':
+            case 'Θ': case 'Ξ': case 'Æ': case 'æ': case 'ß': case 'É': case '¤': case '¡': case 'Ä': case 'Ö':
+            case 'Ñ': case 'Ü': case '§': case '¿': case 'ä': case 'ö': case 'ñ': case 'ü': case 'à':
+                return 1;
+            case '€':
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return The encoding {@code text} is sent with.
+     */
+    public static MessageEncoding of(CharSequence text) {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (gsmSeptets(text.charAt(i)) == 0) {
+                return UCS_2;
+            }
+        }
+        return GSM_7;
+    }
+
+    /**
+     * Counts the segments {@code text} is sent as, in one pass that follows both encodings until the text turns out
+     * not to be GSM-7.
+     *
+     * @return The number of segments, 0 for an empty text.
+     */
+    public static int segments(CharSequence text) {
+        int n = text.length();
+        if (n == 0) {
+            return 0;
+        }
+        boolean gsm = true;
+        int septets = 0;
+        int gsmSegments = 1;
+        int gsmFill = 0;
+        int ucsSegments = 1;
+        int ucsFill = 0;
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (gsm) {
+                int width = gsmSeptets(c);
+                if (width == 0) {
+                    gsm = false;
+                } else {
+                    septets += width;
+                    if (gsmFill + width > GSM_7.segmentLimit) {
+                        gsmSegments++;
+                        gsmFill = 0;
+                    }
+                    gsmFill += width;
+                }
+            }
+            int units = Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1)) ? 2 : 1;
+            if (ucsFill + units > UCS_2.segmentLimit) {
+                ucsSegments++;
+                ucsFill = 0;
+            }
+            ucsFill += units;
+            i += units - 1;
+        }
+        if (gsm) {
+            return septets <= GSM_7.singleLimit ? 1 : gsmSegments;
+        }
+        return n <= UCS_2.singleLimit ? 1 : ucsSegments;
+    }
+
+    /**
+     * Replaces the characters that would make {@code text} UCS-2 with GSM-7 lookalikes, and anything without one
+     * with {@code ?}.
+     *
+     * @return {@code text} itself if it already is GSM-7, otherwise the transliterated text.
+     */
+    public static String transliterate(String text) {
+        int n = text.length();
+        int i = 0;
+        while (i < n && gsmSeptets(text.charAt(i)) != 0) {
+            i++;
+        }
+        if (i == n) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(n + 8).append(text, 0, i);
+        for (; i < n; i++) {
+            char c = text.charAt(i);
+            if (gsmSeptets(c) != 0) {
+                out.append(c);
+                continue;
+            }
+            if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            }
+            out.append(transliterate(c));
+        }
+        return out.toString();
+    }
+
+    private static String transliterate(char c) {
+        switch (c) {
+            case '‘': case '’': case '‚': case '′': case '`': case '´':
+                return "'";
+            case '“': case '”': case '„': case '″': case '«': case '»':
+                return "\"";
+            case '–': case '—': case '―': case '‐': case '‑': case '−':
+                return "-";
+            case '…':
+                return "...";
+            case '\t': case '\u00A0': case '\u2002': case '\u2003': case '\u2009': case '\u202F':
+                return " ";
+            case '•': case '·':
+                return "*";
+            case '×':
+                return "x";
+            case '÷':
+                return "/";
+            case 'á': case 'â': case 'ã': case 'ā':
+                return "a";
+            case 'À': case 'Á': case 'Â': case 'Ã': case 'Ā':
+                return "A";
+            case 'ç': case 'ć': case 'č':
+                return "c";
+            case 'Ć': case 'Č':
+                return "C";
+            case 'ê': case 'ë': case 'ē': case 'ě':
+                return "e";
+            case 'È': case 'Ê': case 'Ë': case 'Ē': case 'Ě':
+                return "E";
+            case 'í': case 'î': case 'ï': case 'ī':
+                return "i";
+            case 'Ì': case 'Í': case 'Î': case 'Ï': case 'Ī':
+                return "I";
+            case 'ó': case 'ô': case 'õ': case 'ō':
+                return "o";
+            case 'Ò': case 'Ó': case 'Ô': case 'Õ': case 'Ō':
+                return "O";
+            case 'ú': case 'û': case 'ū':
+                return "u";
+            case 'Ù': case 'Ú': case 'Û': case 'Ū':
+                return "U";
+            case 'ý': case 'ÿ':
+                return "y";
+            case 'Ý': case 'Ÿ':
+                return "Y";
+            case 'ś': case 'š':
+                return "s";
+            case 'Ś': case 'Š':
+                return "S";
+            case 'ž': case 'ź': case 'ż':
+                return "z";
+            case 'Ž': case 'Ź': case 'Ż':
+                return "Z";
+            case 'ł':
+                return "l";
+            case 'Ł':
+                return "L";
+            case 'œ':
+                return "oe";
+            case 'Œ':
+                return "OE";
+            case '¢':
+                return "c";
+            default:
+                return "?";
+        }
+    }
+}
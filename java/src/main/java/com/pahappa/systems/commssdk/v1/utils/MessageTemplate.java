@@ -0,0 +1,155 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A message with {@code {name}} placeholders, compiled once into literal and placeholder segments so that it can be
+ * rendered for many recipients without parsing it again.
+ * <p>
+ * Write <code>{{</code> for a literal <code>{</code>. Values are looked up by placeholder name in a {@link Map} per recipient;
+ * {@link CharSequence}s and integral numbers are appended without creating a String, anything else through
+ * {@link String#valueOf(Object)}, and a null value renders as nothing.
+ * </p>
+ * <pre>{@code
+ * MessageTemplate template = MessageTemplate.compile("Hi {name}, your balance is UGX {balance}.");
+ * template.render(Map.of("name", "Jane", "balance", 15000)); // "Hi Jane, your balance is UGX 15000."
+ * }</pre>
+ */
+public final class MessageTemplate {
+    /**
+     * Key of the recipient's phone number in the rows of a personalized send.
+     */
+    public static final String NUMBER = "number";
+
+    @Getter
+    private final String source;
+    /**
+     * Literal text before each placeholder, plus the text after the last one.
+     */
+    private final String[] literals;
+    private final String[] placeholders;
+    /**
+     * Distinct placeholder names, in order of first appearance.
+     */
+    @Getter
+    private final List<String> variables;
+    private final int literalLength;
+
+    private MessageTemplate(String source, String[] literals, String[] placeholders) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        Set<String> variables = new LinkedHashSet<>();
+        Collections.addAll(variables, placeholders);
+        this.variables = Collections.unmodifiableList(new ArrayList<>(variables));
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses a template.
+     *
+     * @param template Message text with {@code {name}} placeholders.
+     * @return The compiled template.
+     * @throws IllegalArgumentException if a placeholder is not closed or has no name.
+     */
+    public static MessageTemplate compile(@NonNull String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        int n = template.length();
+        while (i < n) {
+            char c = template.charAt(i);
+            if (c != '{') {
+                literal.append(c);
+                i++;
+            } else if (i + 1 < n && template.charAt(i + 1) == '{') {
+                literal.append('{');
+                i += 2;
+            } else {
+                int close = template.indexOf('}', i + 1);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder at index " + i + " of template: " + template);
+                }
+                String name = template.substring(i + 1, close).trim();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Empty placeholder at index " + i + " of template: " + template);
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(name);
+                i = close + 1;
+            }
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(template, literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    /**
+     * @return Length of the template without its placeholders, a lower bound of every rendered message.
+     */
+    public int getLiteralLength() {
+        return literalLength;
+    }
+
+    /**
+     * @return true if {@code values} has a key for every placeholder (the value itself may be null).
+     */
+    public boolean accepts(Map<String, ?> values) {
+        for (String variable : variables) {
+            if (!values.containsKey(variable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends the message for one recipient to {@code out}, so that a single builder can be reused for every
+     * recipient.
+     *
+     * @param out    Destination.
+     * @param values Placeholder values by name.
+     * @return {@code out}.
+     */
+    public StringBuilder renderTo(StringBuilder out, Map<String, ?> values) {
+        out.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            Object value = values.get(placeholders[i]);
+            if (value instanceof CharSequence) {
+                out.append((CharSequence) value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                out.append(((Number) value).longValue());
+            } else if (value != null) {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+        return out;
+    }
+
+    /**
+     * @param values Placeholder values by name.
+     * @return The message for one recipient.
+     */
+    public String render(Map<String, ?> values) {
+        return renderTo(new StringBuilder(literalLength + 16 * placeholders.length), values).toString();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -1,15 +1,25 @@
 package com.pahappa.systems.commssdk.v1.utils;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.function.LongConsumer;
 
-import static com.pahappa.systems.commssdk.v1.utils.Log.printf;
-import static com.pahappa.systems.commssdk.v1.utils.Log.println;
 
 public final class NumberValidator {
-    private static final String regex = "^\\+?(0|\\d{3})\\d{9}$";
+    /**
+     * Returned by {@link #validateNumberKey(String)} for invalid numbers.
+     */
+    public static final long INVALID = 0;
+    private static final int MAX_DIGITS = 12;
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < MAX_DIGITS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
 
     /**
      * Validates a list of phone numbers.
@@ -21,29 +31,127 @@ public final class NumberValidator {
      * @return A clean list of numbers, with duplicates removed and formatted correctly.
      */
     public static List<String> validateNumbers(List<String> numbers) {
+        return new ArrayList<>(validateNumbersCompact(numbers));
+    }
+
+    /**
+     * Validates a list of phone numbers into a compact list.
+     * <p>
+     * Same rules and de-duplication as {@link #validateNumbers(List)}, but numbers are kept as packed {@code long}s
+     * and de-duplicated in a primitive {@link LongSet}, so no String is created per number. Order is preserved.
+     * </p>
+     * @param numbers List of number inputs to validate.
+     * @return A clean list of numbers, with duplicates removed and formatted correctly.
+     */
+    public static PhoneNumbers validateNumbersCompact(List<String> numbers) {
+        return validateNumbersCompact(numbers, invalid -> {
+        });
+    }
+
+    /**
+     * Same as {@link #validateNumbersCompact(List)}, also reporting how many numbers failed validation.
+     *
+     * @param numbers List of number inputs to validate.
+     * @param invalid Receives the count of invalid numbers, duplicates not included.
+     * @return A clean list of numbers, with duplicates removed and formatted correctly.
+     */
+    public static PhoneNumbers validateNumbersCompact(List<String> numbers, LongConsumer invalid) {
         if (numbers == null || numbers.isEmpty()) {
-            println("Number list cannot be null or empty");
-            return new ArrayList<>();
+            Log.warn("Number list cannot be null or empty");
+            return new PhoneNumbers(new long[0], 0);
         }
 
-        Set<String> _cleansed = new HashSet<>();
+        LongSet _cleansed = LongSet.create(numbers.size());
+        long[] keys = new long[numbers.size()];
+        int size = 0;
+        long rejected = 0;
         for (String number : numbers) {
-            if (number == null || number.trim().isEmpty()) {
-                printf("Number (%s) cannot be null or empty!\n", number);
-                continue;
+            long key = validateNumberKey(number);
+            if (key == INVALID) {
+                rejected++;
+            } else if (_cleansed.add(key)) {
+                keys[size++] = key;
             }
-            number = number.trim().replaceAll("-|\\s", "");
-            if (number.matches(regex)) {
-                if (number.startsWith("0")) {
-                    number = "256" + number.substring(1);
-                } else if (number.startsWith("+")) {
-                    number = number.substring(1);
-                }
-                _cleansed.add(number);
-            } else {
-                printf("Number (%s) is not valid!\n", number);
+        }
+        invalid.accept(rejected);
+        return new PhoneNumbers(size < keys.length ? Arrays.copyOf(keys, size) : keys, size);
+    }
+
+    /**
+     * Validates a single phone number.
+     * <p>
+     * Applies the same rules as {@link #validateNumbers(List)}, without the de-duplication.
+     * </p>
+     * @param number Number input to validate.
+     * @return The number formatted correctly, or null if it is not valid.
+     */
+    public static String validateNumber(String number) {
+        long key = validateNumberKey(number);
+        return key == INVALID ? null : PhoneNumbers.toString(key);
+    }
+
+    /**
+     * Validates a single phone number into a packed key (see {@link PhoneNumbers}).
+     * <p>
+     * Equivalent to trimming, removing {@code -} and whitespace, matching {@code ^\+?(0|\d{3})\d{9}$} and then
+     * rewriting a leading {@code 0} to {@code 256} or dropping a leading {@code +}, but done in a single pass over the
+     * characters without regular expressions or allocation.
+     * </p>
+     * @param number Number input to validate.
+     * @return The packed number, or {@link #INVALID} if it is not valid.
+     */
+    public static long validateNumberKey(String number) {
+        int start = 0;
+        int end = number == null ? 0 : number.length();
+        while (start < end && number.charAt(start) <= ' ') start++;
+        while (end > start && number.charAt(end - 1) <= ' ') end--;
+        if (start == end) {
+            Log.debug("Number (%s) cannot be null or empty!", number);
+            return INVALID;
+        }
+        long value = 0;
+        int digits = 0;
+        boolean leadingZero = false;
+        boolean plus = false;
+        for (int i = start; i < end; i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == MAX_DIGITS) return invalid(number, start, end);
+                if (digits++ == 0) leadingZero = c == '0';
+                value = value * 10 + (c - '0');
+            } else if (c == '+' && digits == 0 && !plus) {
+                plus = true;
+            } else if (!isSeparator(c)) {
+                return invalid(number, start, end);
             }
         }
-        return new ArrayList<>(_cleansed);
+        if (digits != MAX_DIGITS && !(digits == MAX_DIGITS - 2 && leadingZero)) {
+            return invalid(number, start, end);
+        }
+        if (leadingZero && !plus) {
+            // "256" + number.substring(1): the leading 0 adds nothing to the value
+            return PhoneNumbers.key(256 * POWERS_OF_TEN[digits - 1] + value, digits + 2);
+        }
+        return PhoneNumbers.key(value, digits);
+    }
+
+    /**
+     * The characters removed by {@code replaceAll("-|\\s", "")}.
+     */
+    private static boolean isSeparator(char c) {
+        return c == '-' || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static long invalid(String number, int start, int end) {
+        if (!Log.isEnabled(Log.Level.DEBUG)) {
+            return INVALID;
+        }
+        StringBuilder cleaned = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = number.charAt(i);
+            if (!isSeparator(c)) cleaned.append(c);
+        }
+        Log.debug("Number (%s) is not valid!", cleaned);
+        return INVALID;
     }
 }
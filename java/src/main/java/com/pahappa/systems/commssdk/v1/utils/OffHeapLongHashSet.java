@@ -0,0 +1,105 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Off-heap open-addressing {@link LongSet} backed by direct buffers.
+ * <p>
+ * For de-duplicating tens of millions of numbers without growing the Java heap or adding GC work.
+ * A direct buffer holds at most 2 GiB, so a larger table is split into pages of 1 GiB (2^27 slots); the table holds
+ * at most 2^30 slots, about 700 million keys. The memory is released when the set becomes unreachable.
+ * </p>
+ */
+public final class OffHeapLongHashSet implements LongSet {
+    private static final int MAX_SLOTS = 1 << 30;
+
+    private final int pageShift;
+    private final int pageMask;
+    private LongBuffer[] pages;
+    private int capacity;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize Number of keys the set should hold before it has to grow.
+     */
+    public OffHeapLongHashSet(int expectedSize) {
+        this(expectedSize, 27);
+    }
+
+    /**
+     * @param pageShift Log2 of the slots per page, smaller in tests.
+     */
+    OffHeapLongHashSet(int expectedSize, int pageShift) {
+        this.pageShift = pageShift;
+        this.pageMask = (1 << pageShift) - 1;
+        allocate(LongSet.tableSize(expectedSize));
+    }
+
+    private void allocate(int slots) {
+        int pageSlots = Math.min(slots, 1 << pageShift);
+        pages = new LongBuffer[slots / pageSlots];
+        for (int p = 0; p < pages.length; p++) {
+            pages[p] = ByteBuffer.allocateDirect(pageSlots * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        capacity = slots;
+        mask = slots - 1;
+    }
+
+    private long get(int i) {
+        return pages[i >>> pageShift].get(i & pageMask);
+    }
+
+    private void put(int i, long key) {
+        pages[i >>> pageShift].put(i & pageMask, key);
+    }
+
+    @Override
+    public boolean add(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("0 cannot be stored in a LongSet");
+        }
+        int i = LongSet.hash(key) & mask;
+        for (long slot; (slot = get(i)) != 0; i = (i + 1) & mask) {
+            if (slot == key) return false;
+        }
+        if (size + 1 == capacity) {
+            throw new IllegalStateException("Set too large: it holds at most " + (capacity - 1) + " keys");
+        }
+        put(i, key);
+        if (++size * 3L > capacity * 2L && capacity < MAX_SLOTS) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(long key) {
+        int i = LongSet.hash(key) & mask;
+        for (long slot; (slot = get(i)) != 0; i = (i + 1) & mask) {
+            if (slot == key) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        LongBuffer[] old = pages;
+        allocate(capacity << 1);
+        for (LongBuffer page : old) {
+            for (int j = 0; j < page.capacity(); j++) {
+                long key = page.get(j);
+                if (key == 0) continue;
+                int i = LongSet.hash(key) & mask;
+                while (get(i) != 0) i = (i + 1) & mask;
+                put(i, key);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of validated phone numbers stored as packed {@code long} keys.
+ * <p>
+ * A normalized number is at most 14 digits, so it is kept as its numeric value with the digit count in the top
+ * bits (the count preserves leading zeros). That is 8 bytes per number instead of a String and its array;
+ * Strings are only created by {@link #get(int)}, and {@link #getChars(int, char[])} writes a number without any.
+ * </p>
+ */
+public final class PhoneNumbers extends AbstractList<String> implements RandomAccess {
+    private static final int LENGTH_SHIFT = 56;
+    private static final long VALUE_MASK = (1L << LENGTH_SHIFT) - 1;
+    /**
+     * Longest normalized number: 12 digits with a leading 0 rewritten to 256.
+     */
+    public static final int MAX_LENGTH = 14;
+
+    private final long[] keys;
+    private final int offset;
+    private final int size;
+
+    /**
+     * @param keys Keys created by {@link #key(long, int)}; the array is not copied.
+     * @param size Number of keys in use.
+     */
+    public PhoneNumbers(long[] keys, int size) {
+        this(keys, 0, size);
+    }
+
+    private PhoneNumbers(long[] keys, int offset, int size) {
+        this.keys = keys;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Packs a number into a key.
+     *
+     * @param value  Numeric value of the digits.
+     * @param length Number of digits, including leading zeros.
+     * @return The key, never 0.
+     */
+    public static long key(long value, int length) {
+        return ((long) length << LENGTH_SHIFT) | value;
+    }
+
+    /**
+     * @param key Packed number.
+     * @return Number of digits.
+     */
+    public static int length(long key) {
+        return (int) (key >>> LENGTH_SHIFT);
+    }
+
+    /**
+     * Writes the digits of a key.
+     *
+     * @param key Packed number.
+     * @param dst Destination, at least {@link #length(long)} long.
+     * @return Number of chars written.
+     */
+    public static int getChars(long key, char[] dst) {
+        int length = length(key);
+        long value = key & VALUE_MASK;
+        for (int i = length - 1; i >= 0; i--) {
+            dst[i] = (char) ('0' + (int) (value % 10));
+            value /= 10;
+        }
+        return length;
+    }
+
+    /**
+     * @param key Packed number.
+     * @return The number as a String.
+     */
+    public static String toString(long key) {
+        char[] chars = new char[MAX_LENGTH];
+        return new String(chars, 0, getChars(key, chars));
+    }
+
+    /**
+     * @param index Index in this list.
+     * @return The packed number at that index.
+     */
+    public long key(int index) {
+        return keys[offset + checkIndex(index)];
+    }
+
+    /**
+     * Writes the number at an index without creating a String.
+     *
+     * @param index Index in this list.
+     * @param dst   Destination, at least {@link #MAX_LENGTH} long.
+     * @return Number of chars written.
+     */
+    public int getChars(int index, char[] dst) {
+        return getChars(key(index), dst);
+    }
+
+    @Override
+    public String get(int index) {
+        return toString(key(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public PhoneNumbers subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size);
+        }
+        return new PhoneNumbers(keys, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * @return A copy of the keys in this list.
+     */
+    public long[] toKeyArray() {
+        return Arrays.copyOfRange(keys, offset, offset + size);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LogSink} that forwards messages to SLF4J, so the application's logging configuration decides where they go
+ * and which levels are enabled.
+ * <p>
+ * SLF4J is an optional dependency of the SDK: add {@code slf4j-api} (and a binding) to your own build to use this
+ * class. {@link Log}'s own level still applies first; set it to {@link Log.Level#DEBUG} to leave the choice to SLF4J.
+ * </p>
+ */
+public class Slf4jLogSink implements LogSink {
+    private final Logger logger;
+
+    /**
+     * Logs to the {@code com.pahappa.systems.commssdk} logger.
+     */
+    public Slf4jLogSink() {
+        this(LoggerFactory.getLogger("com.pahappa.systems.commssdk"));
+    }
+
+    public Slf4jLogSink(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public boolean isEnabled(Log.Level level) {
+        switch (level) {
+            case DEBUG:
+                return logger.isDebugEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case ERROR:
+                return logger.isErrorEnabled();
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void log(Log.Level level, String message) {
+        switch (level) {
+            case DEBUG:
+                logger.debug(message);
+                break;
+            case INFO:
+                logger.info(message);
+                break;
+            case WARN:
+                logger.warn(message);
+                break;
+            case ERROR:
+                logger.error(message);
+                break;
+            default:
+        }
+    }
+}
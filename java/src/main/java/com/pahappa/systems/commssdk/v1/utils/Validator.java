@@ -4,15 +4,11 @@ import com.pahappa.systems.commssdk.v1.CommsSDK;
 import com.pahappa.systems.commssdk.v1.models.ApiRequest;
 import com.pahappa.systems.commssdk.v1.models.ApiResponse;
 import com.pahappa.systems.commssdk.v1.models.UserData;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
+import com.pahappa.systems.commssdk.v1.transport.JsonBody;
 
 import static com.pahappa.systems.commssdk.v1.CommsSDK.API_URL;
-import static com.pahappa.systems.commssdk.v1.CommsSDK.OBJECT_MAPPER;
-import static com.pahappa.systems.commssdk.v1.utils.Log.println;
+import static com.pahappa.systems.commssdk.v1.CommsSDK.REQUEST_WRITER;
+import static com.pahappa.systems.commssdk.v1.CommsSDK.RESPONSE_READER;
 
 public final class Validator {
     public static boolean validateCredentials(CommsSDK sdk) {
@@ -22,29 +18,25 @@ public final class Validator {
         if (sdk.getApiKey() == null || sdk.getUserName() == null) {
             throw new IllegalArgumentException("Either API Key or Username and Password must be provided");
         }
-        if (!isValidCredential(sdk)) {
-            println("Authentication failed");
+        if (!CredentialCache.validate(API_URL, sdk.getUserName(), sdk.getApiKey(), () -> isValidCredential(sdk))) {
+            Log.warn("Authentication failed");
             return false;
         }
-        println("Validated using an api key");
+        Log.debug("Validated using an api key");
         return true;
     }
 
 
     private static boolean isValidCredential(CommsSDK sdk) {
-        RestTemplate client = new RestTemplate();
         ApiRequest apiRequest = new ApiRequest();
         apiRequest.setMethod("Balance");
         apiRequest.setUserdata(new UserData(sdk.getUserName(), sdk.getApiKey()));
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON); // force JSON because some edge cases had the media type being sent as XML
-            HttpEntity<ApiRequest> entity = new HttpEntity<>(apiRequest, headers);
-            ResponseEntity<String> res = client.postForEntity(API_URL, entity, String.class);
-            ApiResponse apiResponse = OBJECT_MAPPER.readValue(res.getBody(), ApiResponse.class);
+            byte[] res = sdk.getTransport().post(API_URL, JsonBody.of(REQUEST_WRITER.writeValueAsBytes(apiRequest)));
+            ApiResponse apiResponse = RESPONSE_READER.readValue(res);
             switch (apiResponse.getStatus()) {
                 case OK:
-                    println("Credentials validated successfully.");
+                    Log.info("Credentials validated successfully.");
                     return true;
                 case Failed:
                     throw new Exception(apiResponse.getMessage());
@@ -52,7 +44,7 @@ public final class Validator {
                     return false;
             }
         } catch (Exception e) {
-            println("Error validating credentials: " + e.getMessage());
+            Log.warn("Error validating credentials: %s", e.getMessage());
             return false;
         }
     }
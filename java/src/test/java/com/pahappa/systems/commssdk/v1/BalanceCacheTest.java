@@ -0,0 +1,135 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class BalanceCacheTest {
+    private static final long TTL = TimeUnit.SECONDS.toNanos(10);
+    private static final long STALE = TimeUnit.SECONDS.toNanos(60);
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<CompletableFuture<ApiResponse>> fetches = new ArrayList<>();
+
+    private BalanceCache cache(long staleNanos) {
+        return new BalanceCache(() -> {
+            CompletableFuture<ApiResponse> fetch = new CompletableFuture<>();
+            fetches.add(fetch);
+            return fetch;
+        }, TTL, staleNanos, now::get);
+    }
+
+    private static ApiResponse balance(double value) {
+        ApiResponse response = new ApiResponse();
+        response.setStatus(ApiResponseCode.OK);
+        response.setBalance(value);
+        return response;
+    }
+
+    @Test
+    public void concurrentCallersShareOneRequest() {
+        BalanceCache cache = cache(STALE);
+        CompletableFuture<ApiResponse> first = cache.get();
+        CompletableFuture<ApiResponse> second = cache.get();
+        assertEquals(1, fetches.size());
+
+        fetches.get(0).complete(balance(100));
+        assertEquals(100, first.join().getBalance(), 0);
+        assertEquals(100, second.join().getBalance(), 0);
+        assertEquals(100, cache.get().join().getBalance(), 0);
+        assertEquals(1, fetches.size());
+    }
+
+    @Test
+    public void staleValueIsServedWhileRefreshing() {
+        BalanceCache cache = cache(STALE);
+        cache.get();
+        fetches.get(0).complete(balance(100));
+
+        now.addAndGet(TTL);
+        assertEquals(100, cache.get().join().getBalance(), 0);
+        assertEquals(100, cache.get().join().getBalance(), 0);
+        assertEquals(2, fetches.size());
+
+        fetches.get(1).complete(balance(90));
+        assertEquals(90, cache.get().join().getBalance(), 0);
+        assertEquals(2, fetches.size());
+    }
+
+    @Test
+    public void tooOldValueIsNotServed() {
+        BalanceCache cache = cache(STALE);
+        cache.get();
+        fetches.get(0).complete(balance(100));
+
+        now.addAndGet(TTL + STALE);
+        CompletableFuture<ApiResponse> refreshed = cache.get();
+        assertFalse(refreshed.isDone());
+        fetches.get(1).complete(balance(80));
+        assertEquals(80, refreshed.join().getBalance(), 0);
+    }
+
+    @Test
+    public void invalidateTriggersRefresh() {
+        BalanceCache cache = cache(0);
+        cache.get();
+        fetches.get(0).complete(balance(100));
+
+        cache.invalidate();
+        CompletableFuture<ApiResponse> refreshed = cache.get();
+        assertFalse(refreshed.isDone()); // no stale window, so callers wait
+        fetches.get(1).complete(balance(65));
+        assertEquals(65, refreshed.join().getBalance(), 0);
+    }
+
+    @Test
+    public void refreshStartedBeforeInvalidationIsNotFresh() {
+        BalanceCache cache = cache(0);
+        CompletableFuture<ApiResponse> first = cache.get();
+        cache.invalidate(); // a send completes while the balance is being fetched
+        fetches.get(0).complete(balance(100));
+        assertEquals(100, first.join().getBalance(), 0);
+
+        CompletableFuture<ApiResponse> refreshed = cache.get();
+        assertEquals(2, fetches.size());
+        fetches.get(1).complete(balance(65));
+        assertEquals(65, refreshed.join().getBalance(), 0);
+        assertEquals(65, cache.get().join().getBalance(), 0);
+        assertEquals(2, fetches.size());
+    }
+
+    @Test
+    public void callersGetTheirOwnCopy() {
+        BalanceCache cache = cache(STALE);
+        CompletableFuture<ApiResponse> first = cache.get();
+        CompletableFuture<ApiResponse> second = cache.get();
+        fetches.get(0).complete(balance(100));
+
+        first.join().setBalance(1.0);
+        assertEquals(100, second.join().getBalance(), 0);
+        cache.get().join().setBalance(2.0);
+        assertEquals(100, cache.get().join().getBalance(), 0);
+    }
+
+    @Test
+    public void failedRefreshIsNotCached() {
+        BalanceCache cache = cache(STALE);
+        CompletableFuture<ApiResponse> failed = cache.get();
+        fetches.get(0).completeExceptionally(new RuntimeException("down"));
+        assertThrows(CompletionException.class, failed::join);
+
+        CompletableFuture<ApiResponse> retried = cache.get();
+        assertEquals(2, fetches.size());
+        fetches.get(1).complete(balance(100));
+        assertEquals(100, retried.join().getBalance(), 0);
+    }
+}
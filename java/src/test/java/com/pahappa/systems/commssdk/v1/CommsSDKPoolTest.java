@@ -0,0 +1,98 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.testing.EgoSmsEmulator;
+import com.pahappa.systems.commssdk.v1.transport.JdkHttpTransport;
+import com.pahappa.systems.commssdk.v1.utils.CredentialCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class CommsSDKPoolTest {
+    private EgoSmsEmulator emulator;
+    private String previousUrl;
+
+    @Before
+    public void startEmulator() throws Exception {
+        emulator = new EgoSmsEmulator().withCredentials("user", "key").withLatency(Duration.ofMillis(20), Duration.ZERO).start();
+        previousUrl = CommsSDK.API_URL;
+        CommsSDK.API_URL = emulator.getUrl();
+        CredentialCache.clear();
+    }
+
+    @After
+    public void stopEmulator() {
+        CommsSDK.API_URL = previousUrl;
+        emulator.close();
+    }
+
+    @Test
+    public void handlesAreSharedPerAccount() {
+        JdkHttpTransport transport = new JdkHttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), null);
+        CommsSDKPool pool = new CommsSDKPool().withTransport(transport);
+        CommsSDK first = pool.get("user", "key");
+        assertSame(first, pool.get("user", "key"));
+        assertSame(transport, first.getTransport());
+        assertNotSame(first, pool.get("other", "key"));
+        assertEquals(2, pool.size());
+
+        // a new key replaces the handle
+        CommsSDK rotated = pool.get("user", "new-key");
+        assertNotSame(first, rotated);
+        assertEquals("new-key", rotated.getApiKey());
+        assertSame(rotated, pool.remove("user"));
+        assertEquals(1, pool.size());
+        // lazy handles cost no request
+        assertEquals(0, emulator.getRequests().sum());
+    }
+
+    @Test
+    public void authenticationDoesNotBlockOtherTenants() throws Exception {
+        emulator.withLatency(Duration.ofMillis(500), Duration.ZERO);
+        CommsSDKPool pool = new CommsSDKPool().withLazyAuthentication(false);
+        CompletableFuture<CommsSDK> slow = CompletableFuture.supplyAsync(() -> pool.get("user", "key"));
+        CompletableFuture<CommsSDK> sameTenant = CompletableFuture.supplyAsync(() -> pool.get("user", "key"));
+        Thread.sleep(100); // both wait for the validation request
+
+        long start = System.nanoTime();
+        pool.withLazyAuthentication(true);
+        for (int i = 0; i < 50; i++) {
+            pool.get("tenant" + i, "key"); // could share a map bin with "user"
+        }
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(300).toNanos());
+        assertFalse(slow.isDone());
+
+        assertTrue(slow.get().isAuthenticated());
+        assertSame(slow.get(), sameTenant.get());
+        assertEquals(1, emulator.getRequests().sum());
+    }
+
+    @Test
+    public void tenantConcurrencyIsCapped() throws Exception {
+        CommsSDKPool pool = new CommsSDKPool().withTenantConcurrency(2);
+        CommsSDK sdk = pool.get("user", "key");
+        assertEquals(2, sdk.getDispatcher().getMaxInFlight());
+
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            sends.add(sdk.querySendSMSAsync(Collections.singletonList("0712345678"), "Hello there", null, MessagePriority.MEDIUM));
+        }
+        // only one shared slot for MEDIUM, the other is reserved for HIGHEST
+        Thread.sleep(5);
+        assertTrue(sdk.getDispatcher().getInFlight() <= 1);
+        for (CompletableFuture<?> send : sends) {
+            send.get();
+        }
+        assertEquals(6, emulator.getMessages().sum());
+        assertTrue(sdk.isAuthenticated());
+    }
+}
@@ -0,0 +1,97 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.utils.PhoneNumbers;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class DuplicateFilterTest {
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(30);
+    private static final long NUMBER = PhoneNumbers.key(256712345678L, 12);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void fingerprintCoversNumberMessageAndSenderId() {
+        long hash = DuplicateFilter.hash("Hello", "Shop");
+        assertEquals(DuplicateFilter.fingerprint(NUMBER, hash), DuplicateFilter.fingerprint(NUMBER, DuplicateFilter.hash("Hello", "Shop")));
+        assertNotEquals(DuplicateFilter.fingerprint(NUMBER, hash), DuplicateFilter.fingerprint(NUMBER + 1, hash));
+        assertNotEquals(hash, DuplicateFilter.hash("Hello", "Shop2"));
+        assertNotEquals(hash, DuplicateFilter.hash("Hello", null));
+        assertNotEquals(DuplicateFilter.hash("ab", "c"), DuplicateFilter.hash("a", "bc"));
+    }
+
+    @Test
+    public void duplicatesAreSuppressedForTheWindow() {
+        DuplicateFilter filter = new DuplicateFilter(WINDOW, 100, now::get);
+        long fingerprint = DuplicateFilter.fingerprint(NUMBER, DuplicateFilter.hash("Hello", null));
+        assertTrue(filter.add(fingerprint));
+        assertFalse(filter.add(fingerprint));
+
+        now.addAndGet(WINDOW - 1);
+        assertFalse(filter.add(fingerprint));
+        now.addAndGet(WINDOW / 2);
+        assertTrue(filter.add(fingerprint)); // forgotten once its bucket expired
+    }
+
+    @Test
+    public void removedMessagesCanBeSentAgain() {
+        DuplicateFilter filter = new DuplicateFilter(WINDOW, 100, now::get);
+        long hash = DuplicateFilter.hash("Hello", null);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(filter.add(DuplicateFilter.fingerprint(NUMBER + i, hash)));
+        }
+        now.addAndGet(WINDOW / 2);
+        filter.remove(DuplicateFilter.fingerprint(NUMBER + 7, hash));
+        assertTrue(filter.add(DuplicateFilter.fingerprint(NUMBER + 7, hash)));
+        for (int i = 0; i < 50; i++) {
+            assertFalse(filter.add(DuplicateFilter.fingerprint(NUMBER + i, hash)));
+        }
+    }
+
+    @Test
+    public void fullBucketLetsMessagesThrough() {
+        DuplicateFilter filter = new DuplicateFilter(WINDOW, 10, now::get);
+        long hash = DuplicateFilter.hash("Hello", null);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(filter.add(DuplicateFilter.fingerprint(NUMBER + i, hash)));
+        }
+        assertEquals(10, filter.getOverflows());
+        assertFalse(filter.add(DuplicateFilter.fingerprint(NUMBER, hash)));
+        assertTrue(filter.add(DuplicateFilter.fingerprint(NUMBER + 15, hash)));
+    }
+
+    @Test
+    public void concurrentDuplicatesAreSentOnce() throws Exception {
+        DuplicateFilter filter = new DuplicateFilter(WINDOW, 10_000, System::nanoTime);
+        long hash = DuplicateFilter.hash("Hello", null);
+        AtomicInteger sent = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (filter.add(DuplicateFilter.fingerprint(NUMBER + i, hash))) {
+                        sent.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, sent.get());
+    }
+}
@@ -0,0 +1,112 @@
+package com.pahappa.systems.commssdk.v1;
+
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.models.MessageModel;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SendCoalescerTest {
+    private final List<List<MessageModel>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private SendCoalescer coalescer(int maxBatchSize, int cost) {
+        return new SendCoalescer(messages -> {
+            batches.add(new ArrayList<>(messages));
+            ApiResponse response = new ApiResponse();
+            response.setStatus(ApiResponseCode.OK);
+            response.setCost(cost);
+            response.setMessageFollowUpCode("code" + batches.size());
+            return CompletableFuture.completedFuture(response);
+        }, TimeUnit.SECONDS.toNanos(10), maxBatchSize, Runnable::run);
+    }
+
+    private static MessageModel message(String text, String senderId, MessagePriority priority) {
+        MessageModel message = new MessageModel();
+        message.setNumber("256712345678");
+        message.setMessage(text);
+        message.setSenderId(senderId);
+        message.setPriority(priority);
+        return message;
+    }
+
+    private static String repeat(char c, int count) {
+        return String.join("", Collections.nCopies(count, String.valueOf(c)));
+    }
+
+    @Test
+    public void costIsSharedBySegments() {
+        SendCoalescer coalescer = coalescer(3, 100);
+        CompletableFuture<ApiResponse> single = coalescer.submit(message("Short message", "Shop", MessagePriority.HIGH));
+        CompletableFuture<ApiResponse> three = coalescer.submit(message(repeat('a', 400), "Shop", MessagePriority.HIGH)); // 3 GSM-7 segments
+        CompletableFuture<ApiResponse> unicode = coalescer.submit(message(repeat('é', 10) + "ā", "Shop", MessagePriority.HIGH)); // 1 UCS-2 segment
+
+        assertEquals(1, batches.size());
+        assertEquals(20, (int) single.join().getCost());
+        assertEquals(60, (int) three.join().getCost());
+        assertEquals(20, (int) unicode.join().getCost()); // the remainder
+        assertEquals("code1", single.join().getMessageFollowUpCode());
+        assertEquals(ApiResponseCode.OK, unicode.join().getStatus());
+    }
+
+    @Test
+    public void roundingRemainderGoesToTheLastMessage() {
+        SendCoalescer coalescer = coalescer(3, 10);
+        List<CompletableFuture<ApiResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(coalescer.submit(message("Message " + i, "Shop", MessagePriority.HIGH)));
+        }
+        assertEquals(3, (int) results.get(0).join().getCost());
+        assertEquals(3, (int) results.get(1).join().getCost());
+        assertEquals(4, (int) results.get(2).join().getCost());
+    }
+
+    @Test
+    public void batchesArePerSenderIdAndPriority() {
+        SendCoalescer coalescer = coalescer(2, 70);
+        coalescer.submit(message("One", "Shop", MessagePriority.HIGH));
+        coalescer.submit(message("Two", "Bank", MessagePriority.HIGH));
+        coalescer.submit(message("Three", "Shop", MessagePriority.LOW));
+        assertTrue(batches.isEmpty());
+
+        coalescer.submit(message("Four", "Shop", MessagePriority.HIGH));
+        coalescer.submit(message("Five", "Shop", MessagePriority.LOW));
+        assertEquals(2, batches.size());
+        for (List<MessageModel> batch : batches) {
+            assertEquals(batch.get(0).getSenderId(), batch.get(1).getSenderId());
+            assertEquals(batch.get(0).getPriority(), batch.get(1).getPriority());
+        }
+    }
+
+    @Test
+    public void highestPriorityHasItsOwnDelay() throws Exception {
+        SendCoalescer coalescer = new SendCoalescer(messages -> {
+            batches.add(new ArrayList<>(messages));
+            ApiResponse response = new ApiResponse();
+            response.setStatus(ApiResponseCode.OK);
+            return CompletableFuture.completedFuture(response);
+        }, TimeUnit.SECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(20), 10, Runnable::run);
+        assertTrue(coalescer.coalesces(MessagePriority.HIGHEST));
+        CompletableFuture<ApiResponse> otp = coalescer.submit(message("Your code is 1234", "Bank", MessagePriority.HIGHEST));
+        coalescer.submit(message("Your code is 5678", "Bank", MessagePriority.HIGHEST));
+        coalescer.submit(message("Weekly offers", "Bank", MessagePriority.LOW));
+
+        assertEquals(ApiResponseCode.OK, otp.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, batches.size()); // the low priority batch still waits
+        assertEquals(2, batches.get(0).size());
+    }
+
+    @Test
+    public void highestPriorityCanBeSentOnItsOwn() {
+        SendCoalescer coalescer = new SendCoalescer(messages -> null, TimeUnit.SECONDS.toNanos(10), -1, 10, Runnable::run);
+        assertFalse(coalescer.coalesces(MessagePriority.HIGHEST));
+        assertTrue(coalescer.coalesces(MessagePriority.HIGH));
+    }
+}
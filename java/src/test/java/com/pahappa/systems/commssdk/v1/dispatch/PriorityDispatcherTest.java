@@ -0,0 +1,80 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class PriorityDispatcherTest {
+
+    @Test
+    public void highestBypassesBacklogThroughReservedSlot() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(2);
+        CompletableFuture<Void> campaign = dispatcher.acquire(MessagePriority.LOWEST);
+        CompletableFuture<Void> queued = dispatcher.acquire(MessagePriority.LOWEST);
+        assertTrue(campaign.isDone());
+        assertFalse(queued.isDone());
+
+        CompletableFuture<Void> otp = dispatcher.acquire(MessagePriority.HIGHEST);
+        assertTrue(otp.isDone());
+        assertEquals(2, dispatcher.getInFlight());
+
+        // lower priorities only ever use the shared slot
+        dispatcher.release();
+        assertFalse(queued.isDone());
+        dispatcher.release();
+        assertTrue(queued.isDone());
+    }
+
+    @Test
+    public void highestIsServedBeforeQueuedWork() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(1);
+        dispatcher.acquire(MessagePriority.LOW);
+        CompletableFuture<Void> low = dispatcher.acquire(MessagePriority.LOW);
+        CompletableFuture<Void> otp = dispatcher.acquire(null);
+
+        dispatcher.release();
+        assertTrue(otp.isDone());
+        assertFalse(low.isDone());
+        assertEquals(1, dispatcher.getQueued(MessagePriority.LOW));
+    }
+
+    @Test
+    public void lanesShareSlotsByWeight() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(1);
+        dispatcher.acquire(MessagePriority.HIGH);
+        List<MessagePriority> order = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            for (MessagePriority priority : new MessagePriority[]{MessagePriority.HIGH, MessagePriority.LOWEST}) {
+                dispatcher.acquire(priority).thenRun(() -> order.add(priority));
+            }
+        }
+        for (int i = 0; i < 18; i++) {
+            dispatcher.release();
+        }
+        // 8:1 between HIGH and LOWEST, with LOWEST never starved completely
+        assertEquals(18, order.size());
+        assertEquals(16, order.stream().filter(p -> p == MessagePriority.HIGH).count());
+        assertEquals(2, order.stream().filter(p -> p == MessagePriority.LOWEST).count());
+    }
+
+    @Test
+    public void starvedRequestsAreServedFirst() {
+        AtomicLong now = new AtomicLong();
+        PriorityDispatcher dispatcher = new PriorityDispatcher(1, now::get).withMaxWait(Duration.ofSeconds(1));
+        dispatcher.acquire(MessagePriority.HIGH);
+        CompletableFuture<Void> lowest = dispatcher.acquire(MessagePriority.LOWEST);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        CompletableFuture<Void> high = dispatcher.acquire(MessagePriority.HIGH);
+
+        dispatcher.release();
+        assertTrue(lowest.isDone());
+        assertFalse(high.isDone());
+    }
+}
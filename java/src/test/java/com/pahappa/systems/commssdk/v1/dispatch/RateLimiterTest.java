@@ -0,0 +1,101 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+    @Test
+    public void bucketAllowsBurstThenRefills() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 5, now::get); // one token per 100ms
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(1));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(1));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals(0, bucket.tryAcquire(2));
+        assertTrue(bucket.tryAcquire(1) > 0);
+
+        bucket.release(1);
+        assertEquals(0, bucket.tryAcquire(1));
+    }
+
+    @Test
+    public void oversizedRequestIsAdmittedWhenFullAndPaysItsDebt() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 5, now::get);
+
+        assertEquals(0, bucket.tryAcquire(20));
+        // 20 tokens at 10/s leave the bucket 1.5s in debt, one more fits after 1.6s
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1600), bucket.tryAcquire(1));
+    }
+
+    @Test
+    public void reserveReturnsWaitTimes() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, now::get);
+
+        assertEquals(0, bucket.reserve(1));
+        assertEquals(0, bucket.reserve(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), bucket.reserve(1));
+    }
+
+    @Test
+    public void failFastRejectsAndReturnsTokens() {
+        RateLimiter limiter = new RateLimiter(RateLimiter.Mode.FAIL_FAST)
+                .withRequestsPerSecond(1000, 1000)
+                .withMessagesPerSecond(1, 10)
+                .withMessagesPerSecondPerSender(1, 4);
+
+        assertEquals(0, limiter.acquire("A", 4));
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> limiter.acquire("A", 1));
+        assertTrue(e.getRetryAfter().toMillis() > 0);
+        // the account still has 6 messages left, the rejected request must not have consumed them
+        assertEquals(0, limiter.acquire("B", 4));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("C", 4));
+        assertEquals(0, limiter.acquire("C", 2));
+        // requests without messages only count against the request limit
+        assertEquals(0, limiter.acquire(null, 0));
+    }
+
+    @Test
+    public void concurrentCallersNeverExceedTheBurst() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(RateLimiter.Mode.FAIL_FAST).withRequestsPerSecond(0.001, 100);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        limiter.acquire(null, 0);
+                        admitted.incrementAndGet();
+                    } catch (RateLimitExceededException ignored) {
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(100, admitted.get());
+    }
+
+    @Test
+    public void blockingModeWaits() {
+        RateLimiter limiter = new RateLimiter(RateLimiter.Mode.BLOCK).withRequestsPerSecond(20, 1);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquireBlocking(null, 0);
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(95));
+    }
+}
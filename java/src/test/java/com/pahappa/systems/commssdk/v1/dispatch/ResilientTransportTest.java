@@ -0,0 +1,185 @@
+package com.pahappa.systems.commssdk.v1.dispatch;
+
+import com.pahappa.systems.commssdk.v1.transport.CommsTransport;
+import com.pahappa.systems.commssdk.v1.transport.CommsTransportException;
+import com.pahappa.systems.commssdk.v1.transport.JsonBody;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ResilientTransportTest {
+    private static final JsonBody BODY = JsonBody.of("{}".getBytes(StandardCharsets.UTF_8));
+
+    /**
+     * Answers with the scripted outcomes in order: a String is returned, an exception is thrown.
+     */
+    private static final class ScriptedTransport implements CommsTransport {
+        private final Deque<Object> outcomes;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        ScriptedTransport(Object... outcomes) {
+            this.outcomes = new ArrayDeque<>(Arrays.asList(outcomes));
+        }
+
+        @Override
+        public synchronized byte[] post(String url, JsonBody body) {
+            calls.incrementAndGet();
+            Object outcome = outcomes.isEmpty() ? "{\"Status\":\"OK\"}" : outcomes.poll();
+            if (outcome instanceof RuntimeException) {
+                throw (RuntimeException) outcome;
+            }
+            return ((String) outcome).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public CompletableFuture<byte[]> postAsync(String url, JsonBody body) {
+            try {
+                return CompletableFuture.completedFuture(post(url, body));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+
+    private static RetryPolicy fastRetries(int attempts) {
+        return new RetryPolicy().withMaxAttempts(attempts).withBackoff(Duration.ZERO, Duration.ZERO, 1);
+    }
+
+    @Test
+    public void retriesTransportErrorsAnd5xx() {
+        ScriptedTransport delegate = new ScriptedTransport(
+                new CommsTransportException("connection reset", null), new CommsTransportException(503, "busy"), "ok");
+        ResilientTransport transport = new ResilientTransport(delegate, fastRetries(3), null);
+
+        assertEquals("ok", new String(transport.post("url", BODY), StandardCharsets.UTF_8));
+        assertEquals(3, delegate.calls.get());
+    }
+
+    @Test
+    public void sendsAreOnlyRetriedWhenNotSent() {
+        JsonBody send = JsonBody.of("{\"method\":\"SendSms\"}".getBytes(StandardCharsets.UTF_8), false);
+        ScriptedTransport delegate = new ScriptedTransport(
+                new CommsTransportException("refused", new ConnectException("Connection refused")),
+                new CommsTransportException("connect timed out", new HttpConnectTimeoutException("connect timed out")), "ok");
+        ResilientTransport transport = new ResilientTransport(delegate, fastRetries(3), null);
+        assertEquals("ok", new String(transport.post("url", send), StandardCharsets.UTF_8));
+        assertEquals(3, delegate.calls.get());
+
+        // the gateway may have accepted the messages, so a retry could deliver them twice
+        ScriptedTransport timedOut = new ScriptedTransport(new CommsTransportException("timed out", new HttpTimeoutException("request timed out")), "ok");
+        assertThrows(CommsTransportException.class, () -> new ResilientTransport(timedOut, fastRetries(3), null).post("url", send));
+        assertEquals(1, timedOut.calls.get());
+        ScriptedTransport unavailable = new ScriptedTransport(new CommsTransportException(503, "busy"), "ok");
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> new ResilientTransport(unavailable, fastRetries(3), null).postAsync("url", send).join());
+        assertEquals(503, ((CommsTransportException) e.getCause()).getStatusCode());
+        assertEquals(1, unavailable.calls.get());
+
+        ScriptedTransport optedIn = new ScriptedTransport(new CommsTransportException(503, "busy"),
+                new CommsTransportException("timed out", new HttpTimeoutException("request timed out")), "ok");
+        ResilientTransport ambiguous = new ResilientTransport(optedIn, fastRetries(3).withAmbiguousSendRetries(true), null);
+        assertEquals("ok", new String(ambiguous.post("url", send), StandardCharsets.UTF_8));
+        assertEquals(3, optedIn.calls.get());
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() {
+        ScriptedTransport delegate = new ScriptedTransport(new CommsTransportException(400, "bad request"), "ok");
+        ResilientTransport transport = new ResilientTransport(delegate, fastRetries(3), null);
+
+        CommsTransportException e = assertThrows(CommsTransportException.class, () -> transport.post("url", BODY));
+        assertEquals(400, e.getStatusCode());
+        assertEquals(1, delegate.calls.get());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() {
+        ScriptedTransport delegate = new ScriptedTransport(
+                new CommsTransportException(500, ""), new CommsTransportException(500, ""), new CommsTransportException(502, ""), "ok");
+        ResilientTransport transport = new ResilientTransport(delegate, fastRetries(3), null);
+
+        CompletionException e = assertThrows(CompletionException.class, () -> transport.postAsync("url", BODY).join());
+        assertEquals(502, ((CommsTransportException) e.getCause()).getStatusCode());
+        assertEquals(3, delegate.calls.get());
+    }
+
+    @Test
+    public void retryBudgetLimitsRetries() {
+        Object[] failures = new Object[100];
+        Arrays.fill(failures, new CommsTransportException(500, ""));
+        ScriptedTransport delegate = new ScriptedTransport(failures);
+        // no per-second allowance, one retry per two requests
+        ResilientTransport transport = new ResilientTransport(delegate, fastRetries(10).withRetryBudget(0.5, 0), null);
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(CommsTransportException.class, () -> transport.post("url", BODY));
+        }
+        assertEquals(15, delegate.calls.get());
+    }
+
+    @Test
+    public void backoffGrowsAndIsCapped() {
+        RetryPolicy policy = new RetryPolicy().withBackoff(Duration.ofMillis(100), Duration.ofMillis(350), 2).withJitter(0);
+        assertEquals(Duration.ofMillis(100).toNanos(), policy.backoffNanos(1));
+        assertEquals(Duration.ofMillis(200).toNanos(), policy.backoffNanos(2));
+        assertEquals(Duration.ofMillis(350).toNanos(), policy.backoffNanos(3));
+
+        policy.withJitter(1);
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.backoffNanos(2);
+            assertTrue(delay >= 0 && delay <= Duration.ofMillis(200).toNanos());
+        }
+    }
+
+    @Test
+    public void circuitBreakerOpensAndRecovers() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(10), now::get);
+        ScriptedTransport delegate = new ScriptedTransport(
+                new CommsTransportException(500, ""), new CommsTransportException(500, ""), new CommsTransportException(500, ""),
+                new CommsTransportException("still down", null), "ok");
+        ResilientTransport transport = new ResilientTransport(delegate, null, breaker);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(CommsTransportException.class, () -> transport.post("url", BODY));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        CircuitBreakerOpenException open = assertThrows(CircuitBreakerOpenException.class, () -> transport.post("url", BODY));
+        assertEquals(Duration.ofSeconds(10), open.getRetryAfter());
+        assertEquals(3, delegate.calls.get());
+
+        // the trial request fails, so the breaker opens again
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThrows(CommsTransportException.class, () -> transport.post("url", BODY));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals("ok", new String(transport.post("url", BODY), StandardCharsets.UTF_8));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(5, delegate.calls.get());
+    }
+
+    @Test
+    public void clientErrorsDoNotOpenTheBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(10));
+        ScriptedTransport delegate = new ScriptedTransport(new CommsTransportException(401, ""), "ok");
+        ResilientTransport transport = new ResilientTransport(delegate, null, breaker);
+
+        assertThrows(CommsTransportException.class, () -> transport.post("url", BODY));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("ok", new String(transport.post("url", BODY), StandardCharsets.UTF_8));
+    }
+}
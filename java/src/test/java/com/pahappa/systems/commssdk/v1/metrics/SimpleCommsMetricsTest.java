@@ -0,0 +1,66 @@
+package com.pahappa.systems.commssdk.v1.metrics;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.testing.EgoSmsEmulator;
+import com.pahappa.systems.commssdk.v1.transport.CommsTransportException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SimpleCommsMetricsTest {
+
+    @Test
+    public void percentilesComeFromPowerOfTwoBuckets() {
+        SimpleCommsMetrics metrics = new SimpleCommsMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.recordPhase(CommsMetrics.Phase.NETWORK, 1000);
+        }
+        metrics.recordPhase(CommsMetrics.Phase.NETWORK, 1_000_000);
+
+        assertEquals(100, metrics.getCount(CommsMetrics.Phase.NETWORK));
+        assertEquals(Duration.ofNanos(99 * 1000 + 1_000_000), metrics.getTotalTime(CommsMetrics.Phase.NETWORK));
+        assertEquals(Duration.ofNanos(1023), metrics.getPercentile(CommsMetrics.Phase.NETWORK, 0.5));
+        assertEquals(Duration.ofNanos(1023), metrics.getPercentile(CommsMetrics.Phase.NETWORK, 0.99));
+        assertEquals(Duration.ofNanos((1 << 20) - 1), metrics.getPercentile(CommsMetrics.Phase.NETWORK, 1));
+        assertEquals(Duration.ZERO, metrics.getPercentile(CommsMetrics.Phase.PARSE, 0.5));
+    }
+
+    @Test
+    public void recordsRequestsAgainstTheEmulator() throws Exception {
+        SimpleCommsMetrics metrics = new SimpleCommsMetrics();
+        String previousUrl = CommsSDK.API_URL;
+        try (EgoSmsEmulator emulator = new EgoSmsEmulator().withCredentials("user", "key").start()) {
+            CommsSDK.API_URL = emulator.getUrl();
+            CommsSDK sdk = CommsSDK.authenticateLazily("user", "key").withMetrics(metrics);
+
+            assertEquals(ApiResponseCode.OK, sdk.querySendSMS(Arrays.asList("0712345678", "0712345679", "0712345678", "12"),
+                    "Hello there", null, MessagePriority.HIGH).getStatus());
+            assertEquals(ApiResponseCode.OK, sdk.querySendSMSAsync(Arrays.asList("0712345670"), "Hello there", null, null).get().getStatus());
+            sdk.getBalance();
+            emulator.withFailureRate(1.0);
+            assertEquals(ApiResponseCode.Failed, sdk.querySendSMS(Arrays.asList("0712345678"), "Hello there", null, null).getStatus());
+            emulator.withErrorRate(1.0);
+            assertThrows(CommsTransportException.class, () -> sdk.querySendSMS(Arrays.asList("0712345678"), "Hello there", null, null));
+        } finally {
+            CommsSDK.API_URL = previousUrl;
+        }
+
+        assertEquals(3, metrics.getMessagesSent());
+        assertEquals(1, metrics.getNumbersRejected()); // "12", not the duplicate
+        assertEquals(3, metrics.getOkResponses());
+        assertEquals(1, metrics.getFailedResponses());
+        assertEquals(1, metrics.getTransportErrors());
+        assertEquals(0, metrics.getInFlight());
+        assertEquals(3 * 35, metrics.getCost());
+        assertEquals(4, metrics.getCount(CommsMetrics.Phase.VALIDATE));
+        assertEquals(4, metrics.getCount(CommsMetrics.Phase.PARSE));
+        assertEquals(4, metrics.getCount(CommsMetrics.Phase.NETWORK));
+        // three send bodies and one balance request
+        assertEquals(4, metrics.getCount(CommsMetrics.Phase.SERIALIZE));
+    }
+}
@@ -0,0 +1,29 @@
+package com.pahappa.systems.commssdk.v1.models;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ApiResponseCodeTest {
+
+    @Test
+    public void bindsIgnoringCase() {
+        assertSame(ApiResponseCode.OK, ApiResponseCode.fromJson("OK"));
+        assertSame(ApiResponseCode.OK, ApiResponseCode.fromJson("ok"));
+        assertSame(ApiResponseCode.Failed, ApiResponseCode.fromJson("Failed"));
+        assertSame(ApiResponseCode.Failed, ApiResponseCode.fromJson("FAILED"));
+        assertThrows(IllegalArgumentException.class, () -> ApiResponseCode.fromJson("Pending"));
+    }
+
+    @Test
+    public void parsesResponseBytes() throws Exception {
+        byte[] json = "{\"Status\":\"failed\",\"Message\":\"Insufficient balance\",\"Cost\":0}".getBytes(StandardCharsets.UTF_8);
+        ApiResponse response = CommsSDK.RESPONSE_READER.readValue(json);
+        assertEquals(ApiResponseCode.Failed, response.getStatus());
+        assertEquals("Insufficient balance", response.getMessage());
+        assertEquals("\"Failed\"", CommsSDK.OBJECT_MAPPER.writeValueAsString(response.getStatus()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.pahappa.systems.commssdk.v1.models;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BulkApiResponseTest {
+
+    private static List<String> chunk(String... numbers) {
+        return Arrays.asList(numbers);
+    }
+
+    private static ApiResponse response(ApiResponseCode status, Integer cost, String followUpCode) {
+        ApiResponse apiResponse = new ApiResponse();
+        apiResponse.setStatus(status);
+        apiResponse.setMessage(status == ApiResponseCode.OK ? "Sent" : "Insufficient balance");
+        apiResponse.setCost(cost);
+        apiResponse.setCurrency("UGX");
+        apiResponse.setMessageFollowUpCode(followUpCode);
+        return apiResponse;
+    }
+
+    @Test
+    public void allChunksOk() {
+        List<List<String>> chunks = Arrays.asList(chunk("256700000001", "256700000002"), chunk("256700000003"));
+        ApiResponse[] responses = {response(ApiResponseCode.OK, 70, "a"), response(ApiResponseCode.OK, 35, "b")};
+        BulkApiResponse bulk = BulkApiResponse.combine(chunks, responses, new Throwable[2]);
+        assertEquals(ApiResponseCode.OK, bulk.getStatus());
+        assertEquals(Integer.valueOf(105), bulk.getCost());
+        assertEquals("UGX", bulk.getCurrency());
+        assertEquals("a,b", bulk.getMessageFollowUpCode());
+        assertTrue(bulk.getFailedNumbers().isEmpty());
+    }
+
+    @Test
+    public void failedAndMissingChunks() {
+        List<List<String>> chunks = Arrays.asList(chunk("256700000001"), chunk("256700000002"), chunk("256700000003"));
+        ApiResponse[] responses = {response(ApiResponseCode.OK, 35, "a"), response(ApiResponseCode.Failed, null, null), null};
+        Throwable[] errors = {null, null, new RuntimeException("timeout")};
+        BulkApiResponse bulk = BulkApiResponse.combine(chunks, responses, errors);
+        assertEquals(ApiResponseCode.Failed, bulk.getStatus());
+        assertEquals("2 of 3 chunks failed: Insufficient balance", bulk.getMessage());
+        assertEquals(Integer.valueOf(35), bulk.getCost());
+        assertEquals("a", bulk.getMessageFollowUpCode());
+        assertEquals(Arrays.asList("256700000002", "256700000003"), bulk.getFailedNumbers());
+        assertNull(bulk.getChunkResponses().get(2));
+    }
+}
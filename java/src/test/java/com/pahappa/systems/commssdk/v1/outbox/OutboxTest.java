@@ -0,0 +1,261 @@
+package com.pahappa.systems.commssdk.v1.outbox;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.dispatch.RateLimiter;
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.testing.EgoSmsEmulator;
+import com.pahappa.systems.commssdk.v1.utils.CredentialCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class OutboxTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EgoSmsEmulator emulator;
+    private String previousUrl;
+    private CommsSDK sdk;
+    private final Map<Long, ApiResponse> completed = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> parked = new ConcurrentHashMap<>();
+
+    @Before
+    public void startEmulator() throws Exception {
+        emulator = new EgoSmsEmulator().withCredentials("user", "key").start();
+        previousUrl = CommsSDK.API_URL;
+        CommsSDK.API_URL = emulator.getUrl();
+        CredentialCache.clear(); // emulator ports may be reused between tests
+        sdk = CommsSDK.authenticate("user", "key");
+    }
+
+    @After
+    public void stopEmulator() {
+        CommsSDK.API_URL = previousUrl;
+        emulator.close();
+    }
+
+    private Outbox outbox(Path directory) {
+        return new Outbox(directory, sdk)
+                .withSegmentSize(1024)
+                .withRetryBackoff(Duration.ofMillis(10), Duration.ofMillis(50))
+                .withListener(new Outbox.Listener() {
+                    @Override
+                    public void onComplete(long id, ApiResponse response) {
+                        completed.put(id, response);
+                    }
+
+                    @Override
+                    public void onParked(long id, Throwable error) {
+                        parked.put(id, true);
+                    }
+                });
+    }
+
+    /**
+     * Waits until the listener has seen the given number of parked requests.
+     */
+    private void awaitParked(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (parked.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, parked.size());
+    }
+
+    /**
+     * @return An API URL on a port nothing listens on, where connections are refused.
+     */
+    private static String unreachableUrl() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return "http://127.0.0.1:" + socket.getLocalPort() + "/api/v1/json";
+        }
+    }
+
+    /**
+     * Waits until the listener has seen the given number of completions.
+     */
+    private void awaitCompleted(Outbox outbox, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (completed.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, completed.size());
+        assertEquals(0, outbox.getPendingCount());
+    }
+
+    @Test
+    public void sendsAndRecordsFollowUpCode() throws Exception {
+        try (Outbox outbox = outbox(folder.newFolder().toPath()).start()) {
+            long id = outbox.sendSMS(Arrays.asList("0712345678", "0712345679"), "Hello there", "MyBrand", MessagePriority.HIGH);
+            awaitCompleted(outbox, 1);
+            ApiResponse response = completed.get(id);
+            assertEquals(ApiResponseCode.OK, response.getStatus());
+            assertNotNull(response.getMessageFollowUpCode());
+            assertEquals(2, emulator.getMessages().sum());
+        }
+    }
+
+    @Test
+    public void rotatesAndCompactsSegments() throws Exception {
+        try (Outbox outbox = outbox(folder.newFolder().toPath()).start()) {
+            for (int i = 0; i < 50; i++) {
+                outbox.sendSMS(Arrays.asList("0712345678"), "Message number " + i + " with some padding text", null, null);
+            }
+            awaitCompleted(outbox, 50);
+            assertEquals(50, emulator.getRequests().sum() - 1); // minus the credential check
+            // only the active segment is left once everything is complete
+            assertEquals(1, outbox.segmentSequences().size());
+            assertTrue(outbox.segmentSequences().get(0) > 1);
+        }
+    }
+
+    @Test
+    public void replaysPendingRequestsAfterRestart() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CommsSDK.API_URL = unreachableUrl();
+        long[] ids = new long[20];
+        try (Outbox outbox = outbox(directory).start()) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = outbox.sendSMS(Arrays.asList("0712345678", "0712345679"), "Survives restarts " + i, null, null);
+            }
+            Thread.sleep(50);
+            assertEquals(ids.length, outbox.getPendingCount());
+        }
+        assertTrue(completed.isEmpty());
+
+        CommsSDK.API_URL = emulator.getUrl();
+        try (Outbox outbox = outbox(directory).start()) {
+            awaitCompleted(outbox, ids.length);
+            for (long id : ids) {
+                assertEquals(ApiResponseCode.OK, completed.get(id).getStatus());
+            }
+            assertEquals(2 * ids.length, emulator.getMessages().sum());
+            long next = outbox.sendSMS(Arrays.asList("0712345678"), "After restart", null, null);
+            assertTrue(next > ids[ids.length - 1]);
+        }
+    }
+
+    private static List<String> numbers(int count) {
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(String.valueOf(256700000000L + i));
+        }
+        return numbers;
+    }
+
+    @Test
+    public void chunkedRequestsRetryChunksThatFailedInTransport() throws Exception {
+        emulator.withErrorRate(1.0);
+        try (Outbox outbox = outbox(folder.newFolder().toPath()).withAmbiguousRetries(1000).start()) {
+            long id = outbox.sendSMS(numbers(1200), "Bulk message", null, null); // three chunks of up to 500
+            Thread.sleep(100);
+            assertTrue(completed.isEmpty());
+            assertEquals(1, outbox.getPendingCount());
+
+            emulator.withErrorRate(0.5);
+            awaitCompleted(outbox, 1);
+            assertEquals(ApiResponseCode.OK, completed.get(id).getStatus());
+            assertEquals(1200, emulator.getMessages().sum()); // chunks that went through are not sent again
+        }
+    }
+
+    @Test
+    public void failedResponsesAreNotRetried() throws Exception {
+        emulator.withFailureRate(1.0);
+        try (Outbox outbox = outbox(folder.newFolder().toPath()).start()) {
+            long id = outbox.sendSMS(Arrays.asList("0712345678"), "Hello there", null, null);
+            awaitCompleted(outbox, 1);
+            assertEquals(ApiResponseCode.Failed, completed.get(id).getStatus());
+            assertEquals(2, emulator.getRequests().sum()); // credential check and one send
+        }
+    }
+
+    @Test
+    public void requestsThatMayHaveBeenSentAreParked() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        emulator.withErrorRate(1.0);
+        long id;
+        try (Outbox outbox = outbox(directory).start()) {
+            id = outbox.sendSMS(Arrays.asList("0712345678"), "Hello there", null, null);
+            awaitParked(1);
+            assertEquals(Arrays.asList(id), outbox.getParkedIds());
+            assertEquals(1, outbox.getPendingCount());
+            assertEquals(2, emulator.getRequests().sum()); // credential check and one send, not retried
+        }
+
+        emulator.withErrorRate(0);
+        try (Outbox outbox = outbox(directory).start()) {
+            Thread.sleep(100);
+            assertEquals(Arrays.asList(id), outbox.getParkedIds()); // not replayed either
+            assertEquals(2, emulator.getRequests().sum());
+
+            assertTrue(outbox.resend(id));
+            awaitCompleted(outbox, 1);
+            assertEquals(ApiResponseCode.OK, completed.get(id).getStatus());
+            assertTrue(outbox.getParkedIds().isEmpty());
+            assertFalse(outbox.resend(id));
+        }
+    }
+
+    @Test
+    public void parkedRequestsCanBeDiscarded() throws Exception {
+        emulator.withErrorRate(1.0);
+        try (Outbox outbox = outbox(folder.newFolder().toPath()).start()) {
+            long id = outbox.sendSMS(Arrays.asList("0712345678"), "Hello there", null, null);
+            awaitParked(1);
+            assertTrue(outbox.discard(id));
+            assertEquals(0, outbox.getPendingCount());
+            assertFalse(outbox.discard(id));
+        }
+    }
+
+    @Test
+    public void chunksThatMayHaveBeenSentAreParkedWithoutTheOthers() throws Exception {
+        emulator.withErrorRate(0.5);
+        try (Outbox outbox = outbox(folder.newFolder().toPath()).start()) {
+            long id = outbox.sendSMS(numbers(1200), "Bulk message", null, null); // three chunks of up to 500
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (completed.isEmpty() && parked.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            emulator.withErrorRate(0);
+            if (!parked.isEmpty()) {
+                assertTrue(outbox.resend(id));
+            }
+            awaitCompleted(outbox, 1);
+            assertEquals(ApiResponseCode.OK, completed.get(id).getStatus());
+            assertEquals(1200, emulator.getMessages().sum());
+        }
+    }
+
+    @Test
+    public void rateLimitedRequestsAreRetried() throws Exception {
+        sdk.withRateLimit(new RateLimiter(RateLimiter.Mode.FAIL_FAST).withRequestsPerSecond(50, 1));
+        try (Outbox outbox = outbox(folder.newFolder().toPath()).start()) {
+            for (int i = 0; i < 10; i++) {
+                outbox.sendSMS(Arrays.asList("0712345678"), "Rate limited " + i, null, null);
+            }
+            awaitCompleted(outbox, 10);
+            for (ApiResponse response : completed.values()) {
+                assertEquals(ApiResponseCode.OK, response.getStatus());
+            }
+            assertEquals(10, emulator.getMessages().sum());
+            assertTrue(parked.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.pahappa.systems.commssdk.v1.testing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process emulator of the EgoSMS {@code /api/v1/json} endpoint for offline and load testing. Shipped in the
+ * {@code tests} jar, not in the SDK itself.
+ * <p>
+ * Answers {@code SendSms} and {@code Balance} like the live API, with optional injected latency, HTTP 500 errors
+ * and {@code Failed} responses. Gzipped requests ({@code Content-Encoding: gzip}) are accepted, and responses are
+ * gzipped for clients that send {@code Accept-Encoding: gzip}. Point the SDK at it with {@code CommsSDK.API_URL = emulator.getUrl()}.
+ * </p>
+ * <pre>{@code
+ * try (EgoSmsEmulator emulator = new EgoSmsEmulator().withLatency(Duration.ofMillis(50), Duration.ofMillis(20)).start()) {
+ *     CommsSDK.API_URL = emulator.getUrl();
+ *     CommsSDK sdk = CommsSDK.authenticate("user", "key");
+ *     ...
+ * }
+ * }</pre>
+ */
+public class EgoSmsEmulator implements AutoCloseable {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final AtomicInteger followUpCodes = new AtomicInteger();
+    private final AtomicLong balanceCents = new AtomicLong(100_000_000);
+    @Getter
+    private final LongAdder requests = new LongAdder();
+    @Getter
+    private final LongAdder messages = new LongAdder();
+    /**
+     * Requests received with a gzipped body.
+     */
+    @Getter
+    private final LongAdder compressedRequests = new LongAdder();
+    /**
+     * Request body bytes received, as sent (compressed or not).
+     */
+    @Getter
+    private final LongAdder requestBytes = new LongAdder();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String userName;
+    private String apiKey;
+    private int costPerMessage = 35;
+    private long latencyNanos;
+    private long jitterNanos;
+    private double errorRate;
+    private double failureRate;
+
+    /**
+     * Only accept these credentials. By default any credentials are accepted.
+     *
+     * @return This emulator (for chaining).
+     */
+    public EgoSmsEmulator withCredentials(String userName, String apiKey) {
+        this.userName = userName;
+        this.apiKey = apiKey;
+        return this;
+    }
+
+    /**
+     * Delays every response by {@code latency} plus a uniformly random extra of up to {@code jitter}.
+     *
+     * @return This emulator (for chaining).
+     */
+    public EgoSmsEmulator withLatency(@NonNull Duration latency, @NonNull Duration jitter) {
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = jitter.toNanos();
+        return this;
+    }
+
+    /**
+     * Fraction (0..1) of requests answered with HTTP 500.
+     *
+     * @return This emulator (for chaining).
+     */
+    public EgoSmsEmulator withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Fraction (0..1) of {@code SendSms} requests answered with {@code "Status":"Failed"}.
+     *
+     * @return This emulator (for chaining).
+     */
+    public EgoSmsEmulator withFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * Cost charged per message (default 35).
+     *
+     * @return This emulator (for chaining).
+     */
+    public EgoSmsEmulator withCostPerMessage(int costPerMessage) {
+        this.costPerMessage = costPerMessage;
+        return this;
+    }
+
+    /**
+     * Starting account balance (default 1,000,000).
+     *
+     * @return This emulator (for chaining).
+     */
+    public EgoSmsEmulator withBalance(double balance) {
+        this.balanceCents.set(Math.round(balance * 100));
+        return this;
+    }
+
+    /**
+     * Starts listening on a free loopback port.
+     *
+     * @return This emulator (for chaining).
+     */
+    public EgoSmsEmulator start() throws IOException {
+        // without this the JDK server's responses wait on delayed ACKs, ~40ms per request; read when the first
+        // server is created
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/api/v1/json", this::handle);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "egosms-emulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    /**
+     * @return The API URL to assign to {@code CommsSDK.API_URL}.
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/json/";
+    }
+
+    /**
+     * @return Current account balance.
+     */
+    public double getBalance() {
+        return balanceCents.get() / 100.0;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.increment();
+            Request request;
+            boolean gzipped = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            if (gzipped) {
+                compressedRequests.increment();
+            }
+            try (InputStream in = new CountingInputStream(exchange.getRequestBody(), requestBytes)) {
+                request = Request.parse(gzipped ? new GZIPInputStream(in) : in);
+            }
+            delay();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                respond(exchange, 500, out -> out.writeStringField("error", "Injected server error"));
+                return;
+            }
+            if (request == null || request.method == null) {
+                respond(exchange, 200, out -> failed(out, "Invalid request"));
+                return;
+            }
+            if (userName != null && (!userName.equals(request.userName) || !apiKey.equals(request.apiKey))) {
+                respond(exchange, 200, out -> failed(out, "Invalid username or password"));
+                return;
+            }
+            switch (request.method) {
+                case "Balance":
+                    respond(exchange, 200, out -> {
+                        out.writeStringField("Status", "OK");
+                        out.writeNumberField("Balance", getBalance());
+                        out.writeStringField("Currency", "UGX");
+                    });
+                    return;
+                case "SendSms":
+                    if (request.messages == 0) {
+                        respond(exchange, 200, out -> failed(out, "No messages to send"));
+                        return;
+                    }
+                    if (failureRate > 0 && random.nextDouble() < failureRate) {
+                        respond(exchange, 200, out -> failed(out, "Injected failure"));
+                        return;
+                    }
+                    int cost = request.messages * costPerMessage;
+                    balanceCents.addAndGet(-cost * 100L);
+                    messages.add(request.messages);
+                    String followUpCode = "emu" + followUpCodes.incrementAndGet();
+                    respond(exchange, 200, out -> {
+                        out.writeStringField("Status", "OK");
+                        out.writeStringField("Message", "Message sent successfully");
+                        out.writeNumberField("Cost", cost);
+                        out.writeStringField("Currency", "UGX");
+                        out.writeStringField("MsgFollowUpUniqueCode", followUpCode);
+                    });
+                    return;
+                default:
+                    respond(exchange, 200, out -> failed(out, "Unknown method: " + request.method));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        long nanos = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+        if (nanos <= 0) return;
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void failed(JsonGenerator out, String message) throws IOException {
+        out.writeStringField("Status", "Failed");
+        out.writeStringField("Message", message);
+    }
+
+    private static void respond(HttpExchange exchange, int status, Fields fields) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        try (JsonGenerator out = JSON_FACTORY.createGenerator(body)) {
+            out.writeStartObject();
+            fields.write(out);
+            out.writeEndObject();
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(body.size());
+            try (OutputStream out = new GZIPOutputStream(gzipped)) {
+                body.writeTo(out);
+            }
+            body = gzipped;
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, body.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            body.writeTo(out);
+        }
+    }
+
+    /**
+     * Counts the bytes read from a request body as they are read.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongAdder count;
+
+        CountingInputStream(InputStream in, LongAdder count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count.increment();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count.add(n);
+            return n;
+        }
+    }
+
+    private interface Fields {
+        void write(JsonGenerator out) throws IOException;
+    }
+
+    /**
+     * The parts of a request the emulator needs, read with a streaming parser so large sends stay cheap.
+     */
+    private static final class Request {
+        private String method;
+        private String userName;
+        private String apiKey;
+        private int messages;
+
+        static Request parse(InputStream in) throws IOException {
+            Request request = new Request();
+            try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if ("method".equals(field) && value == JsonToken.VALUE_STRING) {
+                        request.method = parser.getText();
+                    } else if ("userdata".equals(field) && value == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = parser.getCurrentName();
+                            parser.nextToken();
+                            if ("username".equals(name)) request.userName = parser.getValueAsString();
+                            else if ("password".equals(name)) request.apiKey = parser.getValueAsString();
+                            else parser.skipChildren();
+                        }
+                    } else if ("msgdata".equals(field) && value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            request.messages++;
+                            parser.skipChildren();
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } catch (IOException e) {
+                return null;
+            }
+            return request;
+        }
+    }
+}
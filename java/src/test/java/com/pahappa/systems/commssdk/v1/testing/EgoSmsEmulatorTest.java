@@ -0,0 +1,292 @@
+package com.pahappa.systems.commssdk.v1.testing;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.dispatch.PriorityDispatcher;
+import com.pahappa.systems.commssdk.v1.dispatch.RateLimiter;
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.models.BulkApiResponse;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.utils.CredentialCache;
+import com.pahappa.systems.commssdk.v1.utils.MessageTemplate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class EgoSmsEmulatorTest {
+    private EgoSmsEmulator emulator;
+    private String previousUrl;
+
+    @Before
+    public void startEmulator() throws Exception {
+        emulator = new EgoSmsEmulator().withCredentials("user", "key").start();
+        previousUrl = CommsSDK.API_URL;
+        CommsSDK.API_URL = emulator.getUrl();
+        CredentialCache.clear(); // emulator ports may be reused between tests
+    }
+
+    @After
+    public void stopEmulator() {
+        CommsSDK.API_URL = previousUrl;
+        emulator.close();
+    }
+
+    private static List<String> numbers(int count) {
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(String.valueOf(256700000000L + i));
+        }
+        return numbers;
+    }
+
+    @Test
+    public void sendAndBalance() throws Exception {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key");
+        assertTrue(sdk.isAuthenticated());
+        double before = sdk.getBalance();
+        assertTrue(sdk.sendSMS(Arrays.asList("0712345678", "+256712345679"), "Hello there"));
+        assertEquals(before - 70, sdk.getBalance(), 0.001);
+        assertEquals(ApiResponseCode.OK, sdk.queryBalanceAsync().get().getStatus());
+        assertEquals(ApiResponseCode.OK, sdk.sendSMSAsync("0712345678", "Hello async").get().getStatus());
+    }
+
+    @Test
+    public void cachedBalance() throws Exception {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key").withBalanceCache(Duration.ofMinutes(1), Duration.ZERO);
+        long requests = emulator.getRequests().sum();
+        double before = sdk.getBalance();
+        assertEquals(before, sdk.getBalance(), 0);
+        assertEquals(before, sdk.queryBalanceAsync().get().getBalance(), 0);
+        assertEquals(requests + 1, emulator.getRequests().sum());
+
+        // a send makes the cached balance stale
+        assertTrue(sdk.sendSMS("0712345678", "Hello there"));
+        assertEquals(before - 35, sdk.getBalance(), 0.001);
+        assertEquals(requests + 3, emulator.getRequests().sum());
+    }
+
+    @Test
+    public void validatedCredentialsAreCached() {
+        long requests = emulator.getRequests().sum();
+        assertTrue(CommsSDK.authenticate("user", "key").isAuthenticated());
+        assertTrue(CommsSDK.authenticate("user", "key").isAuthenticated());
+        assertEquals(requests + 1, emulator.getRequests().sum());
+        assertFalse(CommsSDK.authenticate("user", "wrong").isAuthenticated());
+        assertFalse(CommsSDK.authenticate("user", "wrong").isAuthenticated());
+        assertEquals(requests + 3, emulator.getRequests().sum());
+    }
+
+    @Test
+    public void lazyAuthentication() {
+        CommsSDK sdk = CommsSDK.authenticateLazily("user", "key");
+        assertFalse(sdk.isAuthenticated());
+        assertEquals(0, emulator.getRequests().sum());
+
+        assertTrue(sdk.sendSMS("0712345678", "Hello there"));
+        assertTrue(sdk.isAuthenticated());
+        assertEquals(1, emulator.getRequests().sum());
+        // the first answer validated the credentials for the whole JVM
+        assertTrue(CommsSDK.authenticateLazily("user", "key").isAuthenticated());
+        assertTrue(CommsSDK.authenticate("user", "key").isAuthenticated());
+        assertEquals(1, emulator.getRequests().sum());
+
+        CommsSDK wrong = CommsSDK.authenticateLazily("user", "wrong");
+        assertEquals(ApiResponseCode.Failed, wrong.querySendSMS(Arrays.asList("0712345678"), "Hello there", null, null).getStatus());
+        assertFalse(wrong.isAuthenticated());
+    }
+
+    @Test
+    public void rejectsBadCredentials() {
+        assertFalse(CommsSDK.authenticate("user", "wrong").isAuthenticated());
+    }
+
+    @Test
+    public void chunkedSend() {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key").withChunking(100, 3);
+        ApiResponse response = sdk.querySendSMS(numbers(1050), "Campaign message", null, MessagePriority.LOW);
+        assertTrue(response instanceof BulkApiResponse);
+        assertEquals(ApiResponseCode.OK, response.getStatus());
+        assertEquals(Integer.valueOf(1050 * 35), response.getCost());
+        assertEquals(11, ((BulkApiResponse) response).getChunkResponses().size());
+        assertEquals(1050, emulator.getMessages().sum());
+    }
+
+    @Test
+    public void personalizedSend() {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key").withChunking(100, 2);
+        MessageTemplate template = MessageTemplate.compile("Hi {name}, your code is {code}");
+        List<Map<String, ?>> rows = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            rows.add(Map.of(MessageTemplate.NUMBER, String.valueOf(256700000000L + i), "name", "User " + i, "code", i));
+        }
+        rows.add(Map.of(MessageTemplate.NUMBER, "bad", "name", "x", "code", 0));
+        rows.add(Map.of(MessageTemplate.NUMBER, "0712345678", "name", "missing code"));
+        long requests = emulator.getRequests().sum();
+
+        BulkApiResponse response = sdk.querySendSMS(template, rows, "Brand", MessagePriority.MEDIUM);
+        assertEquals(ApiResponseCode.OK, response.getStatus());
+        assertEquals(3, emulator.getRequests().sum() - requests);
+        assertEquals(250, emulator.getMessages().sum());
+        assertEquals(Integer.valueOf(250 * 35), response.getCost());
+    }
+
+    @Test
+    public void rateLimitedWindowsDoNotBlockTheReader() {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key")
+                .withChunking(10, 4)
+                .withRateLimit(new RateLimiter(RateLimiter.Mode.BLOCK).withRequestsPerSecond(5, 1));
+        long start = System.nanoTime();
+        long[] readAt = new long[1];
+        Iterator<String> numbers = numbers(30).iterator();
+        BulkApiResponse response = sdk.querySendSMS(new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = numbers.hasNext();
+                if (!hasNext) readAt[0] = System.nanoTime();
+                return hasNext;
+            }
+
+            @Override
+            public String next() {
+                return numbers.next();
+            }
+        }, "Campaign message", null, MessagePriority.LOW);
+        assertEquals(ApiResponseCode.OK, response.getStatus());
+        assertTrue(readAt[0] - start < TimeUnit.MILLISECONDS.toNanos(150)); // three windows, read before the limiter lets two through
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(350));
+        assertEquals(30, emulator.getMessages().sum());
+    }
+
+    @Test
+    public void asyncSendReauthenticatesOffTheCallersThread() throws Exception {
+        CommsSDK sdk = CommsSDK.authenticate("user", "wrong");
+        assertFalse(sdk.isAuthenticated());
+        emulator.withLatency(Duration.ofMillis(300), Duration.ZERO);
+        long start = System.nanoTime();
+        CompletableFuture<ApiResponse> response = sdk.querySendSMSAsync(Arrays.asList("0712345678"), "Hello there", null, null);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+        assertNull(response.get()); // the credentials are still wrong
+        assertEquals(0, emulator.getMessages().sum());
+    }
+
+    @Test
+    public void coalescedSingleSends() throws Exception {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key").withCoalescing(Duration.ofMillis(200), 20);
+        long requests = emulator.getRequests().sum();
+        List<CompletableFuture<ApiResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            responses.add(sdk.sendSMSAsync(String.valueOf(256700000000L + i), "Your order " + i + " has shipped"));
+        }
+        int cost = 0;
+        for (CompletableFuture<ApiResponse> response : responses) {
+            assertEquals(ApiResponseCode.OK, response.get().getStatus());
+            cost += response.get().getCost();
+        }
+        assertEquals(50 * 35, cost);
+        assertEquals(3, emulator.getRequests().sum() - requests); // 20 + 20 + 10 after the delay
+        assertEquals(50, emulator.getMessages().sum());
+
+        sdk.withCoalescing(Duration.ofMillis(200), null, 20);
+        assertTrue(sdk.sendSMS("0712345678", "Blocking single send")); // HIGHEST, sent on its own
+        assertEquals(4, emulator.getRequests().sum() - requests);
+    }
+
+    @Test
+    public void duplicateSendsAreSuppressed() {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key").withDuplicateSuppression(Duration.ofMinutes(1), 1000);
+        long messages = emulator.getMessages().sum();
+        assertTrue(sdk.sendSMS(Arrays.asList("0712345678", "0712345679"), "Your order has shipped"));
+        assertEquals(messages + 2, emulator.getMessages().sum());
+
+        // a retry only reaches the number it did not include, and a full repeat makes no request
+        assertTrue(sdk.sendSMS(Arrays.asList("+256712345678", "0712345670"), "Your order has shipped"));
+        assertEquals(messages + 3, emulator.getMessages().sum());
+        long requests = emulator.getRequests().sum();
+        ApiResponse repeat = sdk.querySendSMS(Arrays.asList("0712345679"), "Your order has shipped", null, null);
+        assertEquals(ApiResponseCode.OK, repeat.getStatus());
+        assertEquals(0, (int) repeat.getCost());
+        assertEquals(requests, emulator.getRequests().sum());
+
+        // another message or sender ID is not a duplicate
+        assertTrue(sdk.sendSMS("0712345678", "Your order was delivered"));
+        assertTrue(sdk.sendSMS("0712345678", "Your order has shipped", "Shop"));
+        assertEquals(messages + 5, emulator.getMessages().sum());
+
+        // a failed send is forgotten, so that its retry goes through
+        emulator.withFailureRate(1.0);
+        assertFalse(sdk.sendSMS("0712345677", "Your order has shipped"));
+        emulator.withFailureRate(0);
+        assertTrue(sdk.sendSMS("0712345677", "Your order has shipped"));
+        assertEquals(messages + 6, emulator.getMessages().sum());
+    }
+
+    @Test
+    public void compressedLargeSends() {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key");
+        long bytes = emulator.getRequestBytes().sum();
+        assertTrue(sdk.sendSMS(numbers(2000), "Your statement for March is ready. Log in to view it."));
+        long plainBytes = emulator.getRequestBytes().sum() - bytes;
+        assertEquals(0, emulator.getCompressedRequests().sum());
+
+        sdk.withCompression(8192, 1);
+        long requests = emulator.getRequests().sum();
+        bytes = emulator.getRequestBytes().sum();
+        assertTrue(sdk.sendSMS(numbers(2000), "Your statement for March is ready. Log in to view it."));
+        assertEquals(4, emulator.getCompressedRequests().sum()); // four chunks of 500
+        assertEquals(4, emulator.getRequests().sum() - requests);
+        assertTrue(emulator.getRequestBytes().sum() - bytes < plainBytes / 10);
+
+        // small requests stay plain
+        assertTrue(sdk.sendSMS("0712345678", "Hello there"));
+        assertEquals(4, emulator.getCompressedRequests().sum());
+        assertEquals(4001, emulator.getMessages().sum());
+    }
+
+    @Test
+    public void streamedSendWithFailures() {
+        emulator.withFailureRate(1.0);
+        CommsSDK sdk = CommsSDK.authenticate("user", "key").withChunking(100, 2);
+        // every number twice: duplicates are dropped before sending
+        BulkApiResponse response = sdk.querySendSMS(IntStream.range(0, 500).mapToObj(i -> String.valueOf(256700000000L + i % 250)),
+                "Campaign message", null, MessagePriority.LOW);
+        assertEquals(ApiResponseCode.Failed, response.getStatus());
+        assertEquals(250, response.getFailedNumbers().size());
+        assertEquals(3, response.getChunkResponses().size());
+    }
+
+    @Test
+    public void highestPriorityOvertakesCampaign() throws Exception {
+        emulator.withLatency(Duration.ofMillis(50), Duration.ZERO);
+        CommsSDK sdk = CommsSDK.authenticate("user", "key").withChunking(10, 4)
+                .withPriorityDispatch(new PriorityDispatcher(2));
+        CompletableFuture<ApiResponse> campaign = sdk.querySendSMSAsync(numbers(200), "Campaign message", null, MessagePriority.LOWEST);
+
+        long start = System.nanoTime();
+        assertTrue(sdk.sendSMS("0712345678", "Your code is 1234", MessagePriority.HIGHEST));
+        // 20 campaign chunks at one at a time take a second; the OTP only waits for its own round trip
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 500);
+        assertFalse(campaign.isDone());
+        assertEquals(ApiResponseCode.OK, campaign.get().getStatus());
+    }
+
+    @Test
+    public void loadDriver() throws Exception {
+        CommsSDK sdk = CommsSDK.authenticate("user", "key");
+        LoadDriver.Report report = new LoadDriver(sdk).withSenders(4).withRequests(200).run();
+        assertEquals(200, report.getRequests());
+        assertEquals(200, report.getOk());
+        assertTrue(report.getP99().compareTo(report.getP50()) >= 0);
+    }
+}
@@ -0,0 +1,178 @@
+package com.pahappa.systems.commssdk.v1.testing;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import com.pahappa.systems.commssdk.v1.models.ApiResponse;
+import com.pahappa.systems.commssdk.v1.models.ApiResponseCode;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs concurrent senders against a {@link CommsSDK} (usually pointed at an {@link EgoSmsEmulator}) and reports
+ * latency percentiles and throughput.
+ * <p>
+ * Can also be run standalone: {@code LoadDriver [senders] [requests] [recipientsPerRequest] [latencyMs]} starts an
+ * emulator with the given latency and prints the report.
+ * </p>
+ */
+public class LoadDriver {
+    private final CommsSDK sdk;
+    private int senders = 16;
+    private int requests = 1_000;
+    private List<String> numbers = Arrays.asList("256700000001");
+    private String message = "Load test message";
+
+    /**
+     * @param sdk Authenticated SDK instance shared by all senders.
+     */
+    public LoadDriver(@NonNull CommsSDK sdk) {
+        this.sdk = sdk;
+    }
+
+    /**
+     * @param senders Number of concurrent sender threads (default 16).
+     * @return This driver (for chaining).
+     */
+    public LoadDriver withSenders(int senders) {
+        this.senders = senders;
+        return this;
+    }
+
+    /**
+     * @param requests Total number of send requests across all senders (default 1000).
+     * @return This driver (for chaining).
+     */
+    public LoadDriver withRequests(int requests) {
+        this.requests = requests;
+        return this;
+    }
+
+    /**
+     * @param numbers Recipients of every request.
+     * @param message Message of every request.
+     * @return This driver (for chaining).
+     */
+    public LoadDriver withPayload(@NonNull List<String> numbers, @NonNull String message) {
+        this.numbers = numbers;
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Sends all requests and waits for them to finish.
+     *
+     * @return The measured results.
+     */
+    public Report run() throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long[] latencies = new long[requests];
+        CountDownLatch done = new CountDownLatch(senders);
+        List<Thread> threads = new ArrayList<>();
+        for (int s = 0; s < senders; s++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i; (i = next.getAndIncrement()) < requests; ) {
+                        long start = System.nanoTime();
+                        try {
+                            ApiResponse response = sdk.querySendSMS(numbers, message, null, MessagePriority.HIGHEST);
+                            if (response != null && response.getStatus() == ApiResponseCode.OK) ok.increment();
+                            else failed.increment();
+                        } catch (RuntimeException e) {
+                            errors.increment();
+                        }
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-driver-" + s));
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Report(requests, ok.sum(), failed.sum(), errors.sum(), Duration.ofNanos(elapsed),
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? Duration.ZERO : Duration.ofNanos(latencies[latencies.length - 1]));
+    }
+
+    private static Duration percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return Duration.ZERO;
+        return Duration.ofNanos(sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)]);
+    }
+
+    /**
+     * Results of a {@link LoadDriver#run()}.
+     */
+    @Getter
+    public static final class Report {
+        private final long requests;
+        private final long ok;
+        private final long failed;
+        private final long errors;
+        private final Duration elapsed;
+        private final Duration p50;
+        private final Duration p99;
+        private final Duration max;
+
+        Report(long requests, long ok, long failed, long errors, Duration elapsed, Duration p50, Duration p99, Duration max) {
+            this.requests = requests;
+            this.ok = ok;
+            this.failed = failed;
+            this.errors = errors;
+            this.elapsed = elapsed;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        /**
+         * @return Completed requests per second.
+         */
+        public double getRequestsPerSecond() {
+            return elapsed.isZero() ? 0 : requests * 1e9 / elapsed.toNanos();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d requests in %.2fs (%.1f req/s): %d OK, %d Failed, %d errors; latency p50 %.2fms, p99 %.2fms, max %.2fms",
+                    requests, elapsed.toNanos() / 1e9, getRequestsPerSecond(), ok, failed, errors,
+                    p50.toNanos() / 1e6, p99.toNanos() / 1e6, max.toNanos() / 1e6);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int senders = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int recipients = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int latencyMs = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        List<String> numbers = new ArrayList<>(recipients);
+        for (int i = 0; i < recipients; i++) {
+            numbers.add(String.valueOf(256700000000L + i));
+        }
+        try (EgoSmsEmulator emulator = new EgoSmsEmulator().withLatency(Duration.ofMillis(latencyMs), Duration.ofMillis(latencyMs / 2)).start()) {
+            CommsSDK.API_URL = emulator.getUrl();
+            CommsSDK sdk = CommsSDK.authenticate("load", "test");
+            Report report = new LoadDriver(sdk)
+                    .withSenders(senders)
+                    .withRequests(requests)
+                    .withPayload(numbers, "Load test message")
+                    .run();
+            System.out.println(report);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class JdkHttpTransportTest {
+    private HttpServer server;
+    private String url;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", exchange.getRequestHeaders().getFirst("Content-Type"));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/gzip", exchange -> {
+            // echoes the decompressed request, gzipped again
+            assertEquals("gzip", exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            assertEquals("gzip", exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            byte[] body = new GZIPInputStream(exchange.getRequestBody()).readAllBytes();
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (OutputStream out = new GZIPOutputStream(gzipped)) {
+                out.write(body);
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, gzipped.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                gzipped.writeTo(out);
+            }
+        });
+        server.createContext("/error", exchange -> {
+            byte[] body = "down".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(503, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void post() {
+        byte[] res = new JdkHttpTransport().post(url + "/echo", JsonBody.of("{\"a\":1}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("{\"a\":1}", new String(res, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void postAsync() throws Exception {
+        byte[] res = new JdkHttpTransport().postAsync(url + "/echo", JsonBody.of("{}".getBytes(StandardCharsets.UTF_8))).get();
+        assertEquals("{}", new String(res, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void gzippedRequestAndResponse() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"number\":\"2567").append(10000000 + i).append("\",\"message\":\"Hello\"}");
+        }
+        byte[] plain = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        JsonBody body = JsonBody.gzip(JsonBody.of(plain), 6);
+        assertEquals("gzip", body.contentEncoding());
+        assertEquals(-1, body.contentLength());
+        assertTrue(body.toByteArray().length < plain.length / 5);
+
+        assertArrayEquals(plain, new JdkHttpTransport().post(url + "/gzip", body));
+        assertArrayEquals(plain, new JdkHttpTransport().postAsync(url + "/gzip", body).get());
+    }
+
+    @Test
+    public void gzipStreamReadsInSmallPieces() throws Exception {
+        byte[] plain = new byte[100_000];
+        new Random(42).nextBytes(plain); // incompressible, so output outgrows any single deflate call
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (InputStream in = JsonBody.gzip(JsonBody.of(plain), 1).openStream()) {
+            byte[] buffer = new byte[7];
+            for (int n; (n = in.read(buffer, 0, buffer.length)) >= 0; ) {
+                compressed.write(buffer, 0, n);
+            }
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(plain, in.readAllBytes());
+        }
+        assertArrayEquals(new byte[0], new GZIPInputStream(JsonBody.gzip(JsonBody.of(new byte[0]), 9).openStream()).readAllBytes());
+    }
+
+    @Test
+    public void nonSuccessStatus() {
+        try {
+            new JdkHttpTransport().post(url + "/error", JsonBody.of(new byte[0]));
+            fail("Expected CommsTransportException");
+        } catch (CommsTransportException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+        try {
+            new JdkHttpTransport().postAsync(url + "/error", JsonBody.of(new byte[0])).get();
+            fail("Expected CommsTransportException");
+        } catch (InterruptedException | ExecutionException e) {
+            assertTrue(e.getCause() instanceof CommsTransportException);
+            assertEquals(503, ((CommsTransportException) e.getCause()).getStatusCode());
+        }
+    }
+}
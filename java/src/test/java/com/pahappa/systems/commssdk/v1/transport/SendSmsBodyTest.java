@@ -0,0 +1,112 @@
+package com.pahappa.systems.commssdk.v1.transport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pahappa.systems.commssdk.v1.models.ApiRequest;
+import com.pahappa.systems.commssdk.v1.models.MessageModel;
+import com.pahappa.systems.commssdk.v1.models.MessagePriority;
+import com.pahappa.systems.commssdk.v1.models.UserData;
+import com.pahappa.systems.commssdk.v1.utils.MessageTemplate;
+import com.pahappa.systems.commssdk.v1.utils.NumberValidator;
+import com.pahappa.systems.commssdk.v1.utils.PhoneNumbers;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SendSmsBodyTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final UserData USER_DATA = new UserData("user", "key\"with\\escapes");
+
+    private static String expected(String message, String senderId, MessagePriority priority, List<String> numbers) throws Exception {
+        List<MessageModel> messageModels = new ArrayList<>();
+        for (String number : numbers) {
+            MessageModel messageModel = new MessageModel();
+            messageModel.setNumber(number);
+            messageModel.setMessage(message);
+            messageModel.setSenderId(senderId);
+            messageModel.setPriority(priority);
+            messageModels.add(messageModel);
+        }
+        ApiRequest apiRequest = new ApiRequest();
+        apiRequest.setMethod("SendSms");
+        apiRequest.setUserdata(USER_DATA);
+        apiRequest.setMessageData(messageModels);
+        return OBJECT_MAPPER.writeValueAsString(apiRequest);
+    }
+
+    private static List<String> numbers(int count) {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            numbers.add(String.valueOf(256700000000L + i));
+        }
+        return numbers;
+    }
+
+    @Test
+    public void matchesApiRequestSerialization() throws Exception {
+        List<String> numbers = Arrays.asList("256712345678", "256712345679");
+        String message = "Hello \"Ünïcødé\" 👋\nline two";
+        SendSmsBody body = new SendSmsBody(USER_DATA, message, "Brand", MessagePriority.LOW, numbers);
+        assertEquals(expected(message, "Brand", MessagePriority.LOW, numbers), body.toString());
+    }
+
+    @Test
+    public void streamsManyPieces() throws Exception {
+        List<String> numbers = numbers(5000);
+        String message = "A fairly long broadcast message that is repeated for every single recipient in the list";
+        SendSmsBody body = new SendSmsBody(USER_DATA, message, null, MessagePriority.HIGHEST, numbers);
+        byte[] bytes = body.toByteArray();
+        assertEquals(expected(message, null, MessagePriority.HIGHEST, numbers), new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(bytes.length, body.contentLength());
+        assertArrayEquals(bytes, body.toByteArray());
+    }
+
+    @Test
+    public void slices() throws Exception {
+        List<String> numbers = numbers(10);
+        SendSmsBody slice = new SendSmsBody(USER_DATA, "Hi", "Brand", MessagePriority.HIGH, numbers).slice(3, 7);
+        assertEquals(4, slice.size());
+        String json = expected("Hi", "Brand", MessagePriority.HIGH, numbers.subList(3, 7));
+        assertEquals(json, slice.toString());
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, slice.contentLength());
+    }
+
+    @Test
+    public void phoneNumbers() throws Exception {
+        PhoneNumbers numbers = NumberValidator.validateNumbersCompact(Arrays.asList("0712345678", "+0712345679", "256712345670"));
+        SendSmsBody body = new SendSmsBody(USER_DATA, "Hi", "Brand", MessagePriority.HIGHEST, numbers);
+        String json = expected("Hi", "Brand", MessagePriority.HIGHEST, Arrays.asList("256712345678", "0712345679", "256712345670"));
+        assertEquals(json, body.toString());
+        assertEquals(json.length(), body.contentLength());
+    }
+
+    @Test
+    public void personalized() throws Exception {
+        MessageTemplate template = MessageTemplate.compile("Hi {name}, UGX {amount} received “{name}”");
+        PhoneNumbers numbers = NumberValidator.validateNumbersCompact(Arrays.asList("0712345678", "0712345679"));
+        List<Map<String, ?>> values = Arrays.asList(Map.of("name", "Jane", "amount", 15000), Map.of("name", "Ünïcødé", "amount", 9000L));
+        SendSmsBody body = SendSmsBody.personalized(USER_DATA, template, false, "Brand", MessagePriority.HIGH)
+                .withRecipients(numbers, values);
+
+        JsonNode messages = OBJECT_MAPPER.readTree(body.toByteArray()).get("msgdata");
+        assertEquals(2, messages.size());
+        assertEquals("256712345678", messages.get(0).get("number").asText());
+        assertEquals("Hi Jane, UGX 15000 received “Jane”", messages.get(0).get("message").asText());
+        assertEquals("Hi Ünïcødé, UGX 9000 received “Ünïcødé”", messages.get(1).get("message").asText());
+        assertEquals("Brand", messages.get(1).get("senderid").asText());
+        assertEquals("1", messages.get(1).get("priority").asText());
+        assertEquals(-1, body.contentLength());
+
+        SendSmsBody transliterated = SendSmsBody.personalized(USER_DATA, template, true, "Brand", MessagePriority.HIGH)
+                .withRecipients(numbers, values).slice(1, 2);
+        assertEquals("Hi Ünicødé, UGX 9000 received \"Ünicødé\"",
+                OBJECT_MAPPER.readTree(transliterated.toByteArray()).get("msgdata").get(0).get("message").asText());
+        assertThrows(IllegalStateException.class, () -> body.withNumbers(numbers));
+    }
+}
@@ -0,0 +1,97 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CredentialCacheTest {
+    private static final String URL = "http://credential-cache-test/";
+
+    @After
+    public void reset() {
+        CredentialCache.setTtl(Duration.ofMinutes(10));
+        CredentialCache.clear();
+    }
+
+    @Test
+    public void concurrentValidationsShareOneCheck() throws Exception {
+        AtomicInteger checks = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] results = new Future<?>[8];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = pool.submit(() -> CredentialCache.validate(URL, "user", "key", () -> {
+                    checks.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return true;
+                }));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<?> result : results) {
+                assertEquals(true, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        // callers arriving after the check finished find the cached result
+        assertEquals(1, checks.get());
+        assertTrue(CredentialCache.isValidated(URL, "user", "key"));
+        assertFalse(CredentialCache.isValidated(URL, "user", "other"));
+        assertFalse(CredentialCache.isValidated("http://elsewhere/", "user", "key"));
+    }
+
+    @Test
+    public void failuresAreNotCached() {
+        AtomicInteger checks = new AtomicInteger();
+        assertFalse(CredentialCache.validate(URL, "user", "key", () -> checks.incrementAndGet() < 0));
+        assertFalse(CredentialCache.validate(URL, "user", "key", () -> checks.incrementAndGet() < 0));
+        assertEquals(2, checks.get());
+    }
+
+    @Test
+    public void zeroTtlDisablesTheCache() {
+        CredentialCache.setTtl(Duration.ZERO);
+        AtomicInteger checks = new AtomicInteger();
+        assertTrue(CredentialCache.validate(URL, "user", "key", () -> checks.incrementAndGet() > 0));
+        assertTrue(CredentialCache.validate(URL, "user", "key", () -> checks.incrementAndGet() > 0));
+        assertEquals(2, checks.get());
+        assertFalse(CredentialCache.isValidated(URL, "user", "key"));
+    }
+
+    @Test
+    public void expiredRecordsAreRemovedOnLookup() throws Exception {
+        CredentialCache.setTtl(Duration.ofMillis(1));
+        CredentialCache.markValidated(URL, "user", "key");
+        Thread.sleep(5);
+        assertEquals(1, CredentialCache.size());
+        assertFalse(CredentialCache.isValidated(URL, "user", "key"));
+        assertEquals(0, CredentialCache.size());
+    }
+
+    @Test
+    public void expiredRecordsAreSwept() throws Exception {
+        CredentialCache.setTtl(Duration.ofMillis(1));
+        for (int i = 0; i < 10_000; i++) {
+            CredentialCache.markValidated(URL, "user" + i, "key");
+            if (i % 100 == 99) {
+                Thread.sleep(2);
+            }
+        }
+        assertTrue(CredentialCache.size() < 500); // without sweeping, one record per account ever seen
+    }
+}
@@ -2,9 +2,28 @@ package com.pahappa.systems.commssdk.v1.utils;
 
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.pahappa.systems.commssdk.v1.utils.Log.*;
 
 public class LogTest extends TestCase {
+    private LogSink sink;
+    private Level level;
+
+    @Override
+    protected void setUp() {
+        sink = getSink();
+        level = getLevel();
+    }
+
+    @Override
+    protected void tearDown() {
+        setSink(sink);
+        setLevel(level);
+    }
 
     public void testPrintln() {
         println("Test print ln");
@@ -13,4 +32,105 @@ public class LogTest extends TestCase {
     public void testPrintf() {
         printf("Test print %s", "f");
     }
-}
\ No newline at end of file
+
+    public void testMessagesBelowLevelAreNotFormatted() {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        setSink((level, message) -> lines.add(level + " " + message));
+        setLevel(Level.INFO);
+        AtomicInteger formatted = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                formatted.incrementAndGet();
+                return "x";
+            }
+        };
+
+        debug("skipped %s", argument);
+        info("kept %s", argument);
+        warn("kept %s %s", argument, 1);
+
+        assertEquals(2, formatted.get());
+        assertEquals(List.of("INFO kept x", "WARN kept x 1"), lines);
+    }
+
+    public void testNoopSinkSkipsEverything() {
+        setSink(LogSink.NOOP);
+        setLevel(Level.DEBUG);
+        assertFalse(isEnabled(Level.ERROR));
+        setSink((level, message) -> fail());
+        setLevel(Level.OFF);
+        error("never %s", "logged");
+    }
+
+    public void testInvalidNumbersLoggedAtDebug() {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        setSink((level, message) -> lines.add(level + " " + message));
+        setLevel(Level.INFO);
+        NumberValidator.validateNumber("07-abc");
+        assertTrue(lines.isEmpty());
+
+        setLevel(Level.DEBUG);
+        NumberValidator.validateNumber("07-abc");
+        assertEquals(List.of("DEBUG Number (07abc) is not valid!"), lines);
+    }
+
+    public void testAsyncSinkWritesInOrderOffTheCallingThread() {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        try (AsyncLogSink async = new AsyncLogSink((level, message) -> {
+            threads.add(Thread.currentThread());
+            lines.add(message);
+        }, 1024)) {
+            for (int i = 0; i < 500; i++) {
+                async.log(Level.INFO, "line " + i);
+            }
+            assertTrue(async.flush(5000));
+            assertEquals(0, async.getDropped());
+        }
+        assertEquals(500, lines.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("line " + i, lines.get(i));
+        }
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    public void testAsyncSinkDropsWhenFull() throws InterruptedException {
+        Object gate = new Object();
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        AsyncLogSink async = new AsyncLogSink((level, message) -> {
+            synchronized (gate) {
+                lines.add(message);
+            }
+        }, 4);
+        synchronized (gate) {
+            for (int i = 0; i < 100; i++) {
+                async.log(Level.INFO, "line " + i);
+            }
+        }
+        async.close();
+        assertTrue(async.getDropped() > 0);
+        assertEquals(100, lines.size() + async.getDropped());
+    }
+
+    public void testAsyncSinkCloseRacingWithLoggers() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            AtomicInteger written = new AtomicInteger();
+            AsyncLogSink async = new AsyncLogSink((level, message) -> written.incrementAndGet(), 64);
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        async.log(Level.INFO, "line " + i);
+                    }
+                });
+                threads[t].start();
+            }
+            async.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(threads.length * 200, written.get() + async.getDropped());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+    private static void checkAgainstHashSet(LongSet set) {
+        Set<Long> reference = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            // narrow range so that duplicates are common
+            long key = PhoneNumbers.key(256700000000L + random.nextInt(60_000), 12);
+            assertEquals(reference.add(key), set.add(key));
+        }
+        assertEquals(reference.size(), set.size());
+        for (long key : reference) {
+            assertTrue(set.contains(key));
+        }
+        assertFalse(set.contains(PhoneNumbers.key(256799999999L, 12)));
+    }
+
+    @Test
+    public void onHeap() {
+        checkAgainstHashSet(new LongHashSet());
+    }
+
+    @Test
+    public void offHeap() {
+        checkAgainstHashSet(new OffHeapLongHashSet(16));
+    }
+
+    @Test
+    public void offHeapAcrossPages() {
+        checkAgainstHashSet(new OffHeapLongHashSet(16, 10)); // pages of 1024 slots
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZero() {
+        new LongHashSet().add(0);
+    }
+
+    @Test
+    public void phoneNumbersKeepLeadingZeros() {
+        PhoneNumbers numbers = NumberValidator.validateNumbersCompact(Arrays.asList("+0712345678", "071234567890", "256712345678", "0712345678"));
+        assertEquals(Arrays.asList("0712345678", "25671234567890", "256712345678"), numbers);
+        assertEquals(Arrays.asList("25671234567890", "256712345678"), numbers.subList(1, 3));
+    }
+}
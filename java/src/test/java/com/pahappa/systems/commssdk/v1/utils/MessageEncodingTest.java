@@ -0,0 +1,76 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import com.pahappa.systems.commssdk.v1.CommsSDK;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MessageEncodingTest {
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) sb.append(s);
+        return sb.toString();
+    }
+
+    @Test
+    public void classifiesText() {
+        assertEquals(MessageEncoding.GSM_7, MessageEncoding.of("Hello @home, 100% £5 €2 [ok] {é}"));
+        assertEquals(MessageEncoding.UCS_2, MessageEncoding.of("Café crème – naïve"));
+        assertEquals(MessageEncoding.UCS_2, MessageEncoding.of("Hi 😀"));
+        assertEquals(MessageEncoding.UCS_2, MessageEncoding.of("`backtick`"));
+        assertEquals(1, MessageEncoding.gsmSeptets('@'));
+        assertEquals(2, MessageEncoding.gsmSeptets('^'));
+        assertEquals(2, MessageEncoding.gsmSeptets('€'));
+        assertEquals(0, MessageEncoding.gsmSeptets('á'));
+    }
+
+    @Test
+    public void gsmSegments() {
+        assertEquals(0, MessageEncoding.segments(""));
+        assertEquals(1, MessageEncoding.segments(repeat("a", 160)));
+        assertEquals(2, MessageEncoding.segments(repeat("a", 161)));
+        assertEquals(2, MessageEncoding.segments(repeat("a", 306)));
+        assertEquals(3, MessageEncoding.segments(repeat("a", 307)));
+        // extension characters count twice
+        assertEquals(1, MessageEncoding.segments(repeat("€", 80)));
+        assertEquals(2, MessageEncoding.segments(repeat("€", 81)));
+        // an escape sequence is not split: 152 + 2 does not fit in the first segment
+        assertEquals(2, MessageEncoding.segments(repeat("a", 152) + "€" + repeat("a", 151)));
+        assertEquals(3, MessageEncoding.segments(repeat("a", 152) + "€" + repeat("a", 152)));
+    }
+
+    @Test
+    public void ucs2Segments() {
+        assertEquals(1, MessageEncoding.segments("á" + repeat("a", 69)));
+        assertEquals(2, MessageEncoding.segments("á" + repeat("a", 70)));
+        assertEquals(2, MessageEncoding.segments("á" + repeat("a", 133)));
+        assertEquals(3, MessageEncoding.segments("á" + repeat("a", 134)));
+        // a surrogate pair is not split across segments
+        assertEquals(3, MessageEncoding.segments(repeat("a", 66) + "😀" + repeat("a", 66)));
+    }
+
+    @Test
+    public void transliterate() {
+        String gsm = "Already GSM: é ü €";
+        assertSame(gsm, MessageEncoding.transliterate(gsm));
+        assertEquals("\"Cafe\" - it's naive...", MessageEncoding.transliterate("“Cafe” – it’s naïve…"));
+        assertEquals("Hi ?", MessageEncoding.transliterate("Hi 😀"));
+        assertEquals(MessageEncoding.GSM_7, MessageEncoding.of(MessageEncoding.transliterate("Zażółć gęślą jaźń")));
+    }
+
+    @Test
+    public void estimatesCost() {
+        CommsSDK sdk = CommsSDK.authenticateLazily("estimate", "estimate");
+        String message = "á" + repeat("a", 100);
+        List<String> numbers = Arrays.asList("0712345678", "+256712345678", "256700000001", "bad");
+
+        assertEquals(4, sdk.estimateSegments(numbers, message));
+        assertEquals(140, sdk.estimateCost(numbers, message, 35));
+        sdk.withTransliteration(true);
+        assertEquals(2, sdk.estimateSegments(numbers, message));
+    }
+}
@@ -0,0 +1,47 @@
+package com.pahappa.systems.commssdk.v1.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MessageTemplateTest {
+
+    @Test
+    public void compilesAndRenders() {
+        MessageTemplate template = MessageTemplate.compile("Dear { name }, {amount} paid. {{ref} {name}");
+        assertEquals(Arrays.asList("name", "amount"), template.getVariables());
+        assertEquals(("Dear " + ", " + " paid. {ref} ").length(), template.getLiteralLength());
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Jane");
+        values.put("amount", 1500);
+        assertEquals("Dear Jane, 1500 paid. {ref} Jane", template.render(values));
+
+        StringBuilder reused = new StringBuilder("x");
+        values.put("amount", null);
+        assertSame(reused, template.renderTo(reused, values));
+        assertEquals("xDear Jane,  paid. {ref} Jane", reused.toString());
+    }
+
+    @Test
+    public void accepts() {
+        MessageTemplate template = MessageTemplate.compile("{a}{b}");
+        Map<String, Object> values = new HashMap<>();
+        values.put("a", 1);
+        assertFalse(template.accepts(values));
+        values.put("b", null);
+        assertTrue(template.accepts(values));
+        assertTrue(MessageTemplate.compile("No placeholders").accepts(Collections.emptyMap()));
+    }
+
+    @Test
+    public void rejectsMalformedTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("Hi {name"));
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("Hi { }"));
+    }
+}
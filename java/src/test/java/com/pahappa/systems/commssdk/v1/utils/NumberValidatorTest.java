@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -21,4 +22,57 @@ public class NumberValidatorTest {
         assertTrue(validated.contains("256712345678"));
         System.out.println(validated);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void validateNumber() {
+        assertEquals("256712345678", NumberValidator.validateNumber(" 0712-345 678 "));
+        assertEquals("256712345678", NumberValidator.validateNumber("+256712345678"));
+        assertNull(NumberValidator.validateNumber("0745"));
+        assertNull(NumberValidator.validateNumber(null));
+    }
+
+    /**
+     * The original regex-based rules, kept as the reference for the single-pass scanner.
+     */
+    private static String validateWithRegex(String number) {
+        if (number == null || number.trim().isEmpty()) {
+            return null;
+        }
+        number = number.trim().replaceAll("-|\\s", "");
+        if (number.matches("^\\+?(0|\\d{3})\\d{9}$")) {
+            if (number.startsWith("0")) {
+                number = "256" + number.substring(1);
+            } else if (number.startsWith("+")) {
+                number = number.substring(1);
+            }
+            return number;
+        }
+        return null;
+    }
+
+    @Test
+    public void validateNumberMatchesRegexRules() {
+        String[] cases = {
+                "", " ", "\u0001", "-", "+", "0712345678", "+0712345678", "071234567890", "+071234567890",
+                "256712345678", "+256712345678", "2567123456789", "25671234567", "0812345678", "1712345678",
+                "\t0712 345\n678\r", "\u00010712345678\u0002", "07123\u000145678", "-+256712345678", "+-256712345678",
+                "256+712345678", "++256712345678", "0712345678-", "07 12 34 56 78", "\u00A00712345678", "０712345678",
+                "0712345678\u000B", "\f256712345678", "abc", "+ 256 712 345 678",
+        };
+        for (String number : cases) {
+            assertEquals("Input: " + number, validateWithRegex(number), NumberValidator.validateNumber(number));
+        }
+        char[] alphabet = {'0', '1', '2', '5', '6', '7', '9', '+', '-', ' ', '\t', '\u000B', '\u0001', 'x', '\u00A0'};
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int length = random.nextInt(17);
+            StringBuilder sb = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                // favour digits so that a good share of the inputs are valid
+                sb.append(random.nextInt(3) == 0 ? alphabet[random.nextInt(alphabet.length)] : (char) ('0' + random.nextInt(10)));
+            }
+            String number = sb.toString();
+            assertEquals("Input: " + number, validateWithRegex(number), NumberValidator.validateNumber(number));
+        }
+    }
+}